@@ -0,0 +1,39 @@
+package com.example.bank.model.converter;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CardNumberConverterBenchmark {
+
+    private static final String CARD_NUMBER = "1234567812345678";
+
+    private CardNumberConverter converter;
+
+    private String encrypted;
+
+    @Setup
+    public void setUp() {
+        converter = new CardNumberConverter();
+        ReflectionTestUtils.setField(converter, "password", "benchmark-password");
+        ReflectionTestUtils.setField(converter, "salt", "5c0744940b5c369b");
+        converter.initEncryptor();
+        encrypted = converter.encrypt(CARD_NUMBER);
+    }
+
+    @Benchmark
+    public String encrypt() {
+        return converter.encrypt(CARD_NUMBER);
+    }
+
+    @Benchmark
+    public String decrypt() {
+        return converter.decrypt(encrypted);
+    }
+}
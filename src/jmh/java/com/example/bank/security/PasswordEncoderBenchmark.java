@@ -0,0 +1,48 @@
+package com.example.bank.security;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+public class PasswordEncoderBenchmark {
+
+    private static final String PASSWORD = "secret-password";
+
+    @Param({"10", "12"})
+    private int strength;
+
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    private PasswordEncoder passwordEncoder;
+
+    private String encodedPassword;
+
+    @Setup
+    public void setUp() {
+        passwordHashingExecutor = new PasswordHashingExecutor(1, 64, Duration.ofSeconds(1));
+        passwordEncoder = new SecurityConfig(null, null, null).passwordEncoder(passwordHashingExecutor, strength);
+        encodedPassword = passwordEncoder.encode(PASSWORD);
+    }
+
+    @TearDown
+    public void tearDown() {
+        passwordHashingExecutor.close();
+    }
+
+    @Benchmark
+    public String encode() {
+        return passwordEncoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return passwordEncoder.matches(PASSWORD, encodedPassword);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.bank.service;
+
+import com.example.bank.config.MapperConfig;
+import com.example.bank.model.dto.response.CardResponse;
+import com.example.bank.model.entity.Card;
+import com.example.bank.model.entity.CardStatus;
+import com.example.bank.model.entity.User;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CardMappingBenchmark {
+
+    private ModelMapper modelMapper;
+
+    private Card card;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new MapperConfig().modelMapper();
+
+        User owner = new User();
+        owner.setId(1L);
+        owner.setEmail("user@example.com");
+
+        card = new Card();
+        card.setId(1L);
+        card.setLastFourDigits("5678");
+        card.setOwner(owner);
+        card.setExpirationDate(LocalDate.of(2030, 12, 31));
+        card.setStatus(CardStatus.ACTIVE);
+        card.setBalance(new BigDecimal("100.00"));
+    }
+
+    @Benchmark
+    public CardResponse convertToCardResponse() {
+        return CardService.toCardResponse(modelMapper, card);
+    }
+
+    @Benchmark
+    public String maskCardNumber() {
+        return CardService.maskCardNumber(card.getLastFourDigits());
+    }
+}
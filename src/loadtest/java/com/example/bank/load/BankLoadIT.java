@@ -0,0 +1,210 @@
+package com.example.bank.load;
+
+import com.example.bank.model.converter.CardNumberConverter;
+import com.example.bank.support.TestDatabase;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Boots the whole application on Postgres, seeds it and measures signin, card listing, balance and transfer
+ * latency under concurrent load. Fails when a percentile exceeds its budget in {@code load-test.properties}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "jwt.secret=MDEyMzQ1Njc4OWFiY2RlZjAxMjM0NTY3ODlhYmNkZWY=",
+        "jwt.jwtExpirationMs=3600000",
+        "login-rate-limit.enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@Slf4j
+class BankLoadIT {
+
+    private static final String[] PERCENTILES = {"p50", "p99", "p999"};
+
+    private static final BiConsumer<Integer, String> NO_OP = (index, body) -> { };
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private CardNumberConverter cardNumberConverter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final LoadTestSettings settings = new LoadTestSettings();
+
+    @Test
+    void endpointsStayWithinLatencyBudgets() throws Exception {
+        int users = settings.users();
+        List<long[]> cardIds = new LoadTestDataSeeder(jdbcTemplate, passwordEncoder, cardNumberConverter)
+                .seed(users, settings.cardsPerUser());
+
+        int signedIn = Math.min(users, settings.requests("signin"));
+        AtomicReferenceArray<String> tokens = new AtomicReferenceArray<>(signedIn);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<Map<String, Object>> report = new ArrayList<>();
+        List<String> violations = new ArrayList<>();
+
+        try (LoadGenerator generator = new LoadGenerator(settings.concurrency())) {
+            measure(generator, report, violations, statistics, "signin",
+                    i -> post("/api/auth/signin", "{\"email\":\"" + LoadTestDataSeeder.email(i % signedIn)
+                            + "\",\"password\":\"" + LoadTestDataSeeder.PASSWORD + "\"}", null),
+                    (i, body) -> tokens.set(i % signedIn, readToken(body)));
+
+            measure(generator, report, violations, statistics, "cards",
+                    asRandomUser(tokens, (user, token) -> get("/api/user/cards?size=20", token)), NO_OP);
+
+            measure(generator, report, violations, statistics, "balance",
+                    asRandomUser(tokens, (user, token) -> get("/api/user/cards/"
+                            + randomCard(cardIds.get(user)) + "/balance", token)), NO_OP);
+
+            measure(generator, report, violations, statistics, "transfer",
+                    asRandomUser(tokens, (user, token) -> {
+                        long[] cards = cardIds.get(user);
+                        long source = randomCard(cards);
+                        long target = cards[0] == source ? cards[cards.length - 1] : cards[0];
+                        return post("/api/user/cards/transfer", "{\"sourceCardId\":" + source
+                                + ",\"targetCardId\":" + target + ",\"amount\":1.00}", token);
+                    }), NO_OP);
+        }
+
+        File reportFile = new File(settings.reportPath());
+        reportFile.getAbsoluteFile().getParentFile().mkdirs();
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(reportFile, report);
+        log.info("Load-test report written to {}", reportFile.getAbsolutePath());
+
+        assertTrue(violations.isEmpty(), "Load-test budgets broken:\n" + String.join("\n", violations));
+    }
+
+    /**
+     * Runs an unreported warm-up pass, then the measured pass, and checks the result against its budgets.
+     */
+    private void measure(LoadGenerator generator, List<Map<String, Object>> report, List<String> violations,
+                         Statistics statistics, String endpoint, IntFunction<HttpRequest> requests,
+                         BiConsumer<Integer, String> onSuccess) throws InterruptedException {
+        generator.run(endpoint, settings.warmupRequests(), requests, onSuccess);
+
+        long statementsBefore = statistics.getPrepareStatementCount();
+        LatencyRecorder.Summary summary = generator.run(endpoint, settings.requests(endpoint), requests, onSuccess);
+        double statementsPerRequest = summary.requests() == 0 ? 0
+                : (double) (statistics.getPrepareStatementCount() - statementsBefore) / summary.requests();
+
+        log.info(String.format("%-9s requests=%6d errors=%4d throughput=%8.1f/s p50=%8.2fms p99=%8.2fms "
+                        + "p999=%8.2fms max=%8.2fms jpa-statements/request=%5.2f",
+                endpoint, summary.requests(), summary.errors(), summary.throughput(),
+                summary.p50(), summary.p99(), summary.p999(), summary.max(), statementsPerRequest));
+
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("endpoint", endpoint);
+        row.put("requests", summary.requests());
+        row.put("errors", summary.errors());
+        row.put("throughputPerSecond", summary.throughput());
+        row.put("p50Ms", summary.p50());
+        row.put("p99Ms", summary.p99());
+        row.put("p999Ms", summary.p999());
+        row.put("maxMs", summary.max());
+        row.put("jpaStatementsPerRequest", statementsPerRequest);
+        report.add(row);
+
+        if (summary.errors() > 0) {
+            violations.add(endpoint + ": " + summary.errors() + " failed requests");
+        }
+        for (String percentile : PERCENTILES) {
+            Double budget = settings.budget(endpoint, percentile);
+            double actual = summary.percentile(percentile);
+            if (budget != null && actual > budget) {
+                violations.add(String.format("%s %s %.2fms exceeds budget %.2fms", endpoint, percentile, actual, budget));
+            }
+        }
+    }
+
+    private IntFunction<HttpRequest> asRandomUser(AtomicReferenceArray<String> tokens, UserRequest request) {
+        return i -> {
+            int user = ThreadLocalRandom.current().nextInt(tokens.length());
+            String token = tokens.get(user);
+            if (token == null) {
+                throw new IllegalStateException("User " + user + " did not sign in");
+            }
+            return request.build(user, token);
+        };
+    }
+
+    private static long randomCard(long[] cards) {
+        return cards[ThreadLocalRandom.current().nextInt(cards.length)];
+    }
+
+    private String readToken(String body) {
+        try {
+            return objectMapper.readTree(body).get("token").asText();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unexpected signin response " + body, e);
+        }
+    }
+
+    private HttpRequest get(String path, String token) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, String json, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    @FunctionalInterface
+    private interface UserRequest {
+        HttpRequest build(int user, String token);
+    }
+}
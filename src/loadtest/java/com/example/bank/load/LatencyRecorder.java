@@ -0,0 +1,65 @@
+package com.example.bank.load;
+
+import java.util.Arrays;
+
+/**
+ * Collects request latencies for one endpoint and summarises them once the phase is over.
+ */
+final class LatencyRecorder {
+
+    private final String endpoint;
+
+    private long[] samples = new long[1024];
+
+    private int count;
+
+    private int errors;
+
+    LatencyRecorder(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    synchronized void record(long nanos, boolean success) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+        if (!success) {
+            errors++;
+        }
+    }
+
+    synchronized Summary summarise(long elapsedNanos) {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        return new Summary(endpoint, count, errors, seconds == 0 ? 0 : count / seconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                sorted.length == 0 ? 0 : toMillis(sorted[sorted.length - 1]));
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile * sorted.length);
+        return toMillis(sorted[Math.max(rank - 1, 0)]);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    record Summary(String endpoint, int requests, int errors, double throughput,
+                   double p50, double p99, double p999, double max) {
+
+        double percentile(String name) {
+            return switch (name) {
+                case "p50" -> p50;
+                case "p99" -> p99;
+                case "p999" -> p999;
+                default -> throw new IllegalArgumentException("Unknown percentile " + name);
+            };
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.bank.load;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Fires HTTP requests from virtual threads, keeping at most {@code concurrency} of them in flight.
+ */
+final class LoadGenerator implements AutoCloseable {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(executor)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private final int concurrency;
+
+    LoadGenerator(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Sends {@code requests} requests built by {@code requestFactory} and records their latency.
+     * Responses with a 2xx status count as successes and are handed to {@code onSuccess}.
+     */
+    LatencyRecorder.Summary run(String endpoint, int requests, IntFunction<HttpRequest> requestFactory,
+                                BiConsumer<Integer, String> onSuccess) throws InterruptedException {
+        LatencyRecorder recorder = new LatencyRecorder(endpoint);
+        Semaphore inFlight = new Semaphore(concurrency);
+        long started = System.nanoTime();
+        try (ExecutorService phase = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < requests; i++) {
+                int index = i;
+                inFlight.acquire();
+                phase.submit(() -> {
+                    HttpRequest request = requestFactory.apply(index);
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                        boolean success = response.statusCode() / 100 == 2;
+                        recorder.record(System.nanoTime() - start, success);
+                        if (success) {
+                            onSuccess.accept(index, response.body());
+                        }
+                    } catch (Exception e) {
+                        recorder.record(System.nanoTime() - start, false);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        return recorder.summarise(System.nanoTime() - started);
+    }
+
+    @Override
+    public void close() {
+        client.close();
+        executor.close();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.bank.load;
+
+import com.example.bank.model.converter.CardNumberConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk-inserts users and cards with plain JDBC batches so seeding does not dominate the run.
+ */
+final class LoadTestDataSeeder {
+
+    static final String PASSWORD = "load-test-password";
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000000.00");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final CardNumberConverter cardNumberConverter;
+
+    LoadTestDataSeeder(JdbcTemplate jdbcTemplate, PasswordEncoder passwordEncoder,
+                       CardNumberConverter cardNumberConverter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.cardNumberConverter = cardNumberConverter;
+    }
+
+    static String email(int user) {
+        return "load-user-" + user + "@example.com";
+    }
+
+    /**
+     * @return card ids per seeded user, indexed the same way as {@link #email(int)}
+     */
+    List<long[]> seed(int users, int cardsPerUser) {
+        String passwordHash = passwordEncoder.encode(PASSWORD);
+        List<Object[]> userRows = new ArrayList<>(users);
+        for (int user = 0; user < users; user++) {
+            userRows.add(new Object[]{email(user), passwordHash});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (email, password) VALUES (?, ?)", userRows, BATCH_SIZE,
+                (ps, row) -> {
+                    ps.setString(1, (String) row[0]);
+                    ps.setString(2, (String) row[1]);
+                });
+        List<Long> userIds = jdbcTemplate.queryForList(
+                "SELECT id FROM users WHERE email LIKE 'load-user-%' ORDER BY id", Long.class);
+        jdbcTemplate.batchUpdate("INSERT INTO user_roles (user_id, role) VALUES (?, 'ROLE_USER')", userIds, BATCH_SIZE,
+                (ps, userId) -> ps.setLong(1, userId));
+
+        Date expirationDate = Date.valueOf(LocalDate.now().plusYears(3));
+        List<Object[]> cardRows = new ArrayList<>(users * cardsPerUser);
+        for (int user = 0; user < users; user++) {
+            for (int card = 0; card < cardsPerUser; card++) {
+                String cardNumber = String.format("4000%012d", (long) user * cardsPerUser + card);
+                cardRows.add(new Object[]{cardNumberConverter.encrypt(cardNumber),
+                        CardNumberConverter.lastFourDigits(cardNumber), userIds.get(user)});
+            }
+        }
+        jdbcTemplate.batchUpdate("""
+                        INSERT INTO cards (card_number, last_four_digits, user_id, expiration_date, status, balance)
+                        VALUES (?, ?, ?, ?, 'ACTIVE', ?)""", cardRows, BATCH_SIZE,
+                (ps, row) -> {
+                    ps.setString(1, (String) row[0]);
+                    ps.setString(2, (String) row[1]);
+                    ps.setLong(3, (Long) row[2]);
+                    ps.setDate(4, expirationDate);
+                    ps.setBigDecimal(5, INITIAL_BALANCE);
+                });
+
+        Map<Long, Integer> userIndex = new HashMap<>(users * 2);
+        for (int user = 0; user < users; user++) {
+            userIndex.put(userIds.get(user), user);
+        }
+        List<long[]> cardIds = new ArrayList<>(users);
+        for (int user = 0; user < users; user++) {
+            cardIds.add(new long[cardsPerUser]);
+        }
+        int[] filled = new int[users];
+        jdbcTemplate.query("SELECT user_id, id FROM cards ORDER BY id", rs -> {
+            Integer user = userIndex.get(rs.getLong(1));
+            if (user != null) {
+                cardIds.get(user)[filled[user]++] = rs.getLong(2);
+            }
+        });
+        return cardIds;
+    }
+}
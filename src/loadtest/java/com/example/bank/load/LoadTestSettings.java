@@ -0,0 +1,65 @@
+package com.example.bank.load;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Properties;
+
+/**
+ * Load-test configuration from {@code load-test.properties}, overridable with system properties.
+ */
+final class LoadTestSettings {
+
+    private final Properties properties = new Properties();
+
+    LoadTestSettings() {
+        try (InputStream in = LoadTestSettings.class.getResourceAsStream("/load-test.properties")) {
+            if (in != null) {
+                properties.load(in);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        properties.putAll(System.getProperties());
+    }
+
+    int users() {
+        return intValue("load.users");
+    }
+
+    int cardsPerUser() {
+        return intValue("load.cards-per-user");
+    }
+
+    int concurrency() {
+        return intValue("load.concurrency");
+    }
+
+    int warmupRequests() {
+        return intValue("load.warmup-requests");
+    }
+
+    int requests(String endpoint) {
+        return intValue("load.requests." + endpoint);
+    }
+
+    /**
+     * @return the budget in milliseconds, or null when the percentile is not budgeted
+     */
+    Double budget(String endpoint, String percentile) {
+        String value = properties.getProperty("budget." + endpoint + "." + percentile);
+        return value == null ? null : Double.valueOf(value);
+    }
+
+    String reportPath() {
+        return properties.getProperty("load.report", "target/load-test-report.json");
+    }
+
+    private int intValue(String key) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            throw new IllegalStateException("Missing load-test setting " + key);
+        }
+        return Integer.parseInt(value.trim());
+    }
+}
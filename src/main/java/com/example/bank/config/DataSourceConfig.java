@@ -0,0 +1,83 @@
+package com.example.bank.config;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+@Configuration
+public class DataSourceConfig {
+
+    /**
+     * Wraps the pool so that at most {@code db-concurrency.permits} callers hold a connection at once.
+     * Set the permits to 0 to disable the limit.
+     */
+    @Bean
+    public static BeanPostProcessor concurrencyLimitedDataSourcePostProcessor(
+            @Value("${db-concurrency.permits:0}") int permits,
+            @Value("${db-concurrency.acquire-timeout:5s}") Duration acquireTimeout,
+            @Value("${db-concurrency.max-waiting:1000}") int maxWaiting) {
+        return new OrderedPostProcessor(Ordered.HIGHEST_PRECEDENCE) {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (permits > 0 && isWrappable(bean) && !(bean instanceof ConcurrencyLimitedDataSource)) {
+                    return new ConcurrencyLimitedDataSource((DataSource) bean, permits, acquireTimeout, maxWaiting);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Counts statements, rows and JDBC time of the current request for {@link SqlAccountingFilter}.
+     * Runs after the concurrency limit so the proxy stays the outermost wrapper; {@code unwrap} still reaches the pool.
+     */
+    @Bean
+    public static BeanPostProcessor sqlAccountingDataSourcePostProcessor(
+            @Value("${sql-accounting.enabled:false}") boolean enabled) {
+        return new OrderedPostProcessor(Ordered.LOWEST_PRECEDENCE) {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (enabled && isWrappable(bean)) {
+                    SqlAccountingListener listener = new SqlAccountingListener();
+                    return ProxyDataSourceBuilder.create(beanName, (DataSource) bean)
+                            .listener(listener)
+                            .methodListener(listener)
+                            .proxyResultSet()
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * The routing data source is only reached through the lazy proxy bean of {@link ReplicaDataSourceConfig},
+     * which gets wrapped instead, so statements are counted once and the permits cover primary and replicas.
+     */
+    private static boolean isWrappable(Object bean) {
+        return bean instanceof DataSource && !(bean instanceof ProxyDataSource)
+                && !(bean instanceof ReplicaRoutingDataSource);
+    }
+
+    private abstract static class OrderedPostProcessor implements BeanPostProcessor, PriorityOrdered {
+
+        private final int order;
+
+        OrderedPostProcessor(int order) {
+            this.order = order;
+        }
+
+        @Override
+        public int getOrder() {
+            return order;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.bank.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Enables {@link io.micrometer.core.annotation.Timed} on Spring beans.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    /**
+     * Times the password encoder, the single most expensive step of signin and signup.
+     */
+    @Bean
+    public static BeanPostProcessor timedPasswordEncoderPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof PasswordEncoder passwordEncoder) {
+                    return new TimedPasswordEncoder(passwordEncoder, meterRegistry.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder dataSourceConcurrencyMetrics(DataSource dataSource) {
+        return registry -> {
+            try {
+                if (dataSource.isWrapperFor(ConcurrencyLimitedDataSource.class)) {
+                    dataSource.unwrap(ConcurrencyLimitedDataSource.class).bindTo(registry);
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("Cannot inspect the data source", e);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder virtualThreadPinningMetrics(ObjectProvider<VirtualThreadPinningMonitor> monitor) {
+        return registry -> monitor.ifAvailable(pinningMonitor ->
+                FunctionCounter.builder("bank.virtual_threads.pinned", pinningMonitor,
+                                VirtualThreadPinningMonitor::getPinnedCount)
+                        .description("Virtual thread pinning events above the monitor threshold")
+                        .register(registry));
+    }
+
+    private record TimedPasswordEncoder(PasswordEncoder delegate, MeterRegistry registry) implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return timer("encode").record(() -> delegate.encode(rawPassword));
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return Boolean.TRUE.equals(timer("matches").record(() -> delegate.matches(rawPassword, encodedPassword)));
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            return delegate.upgradeEncoding(encodedPassword);
+        }
+
+        private Timer timer(String operation) {
+            return Timer.builder("bank.password.encoder")
+                    .tag("operation", operation)
+                    .register(registry);
+        }
+    }
+}
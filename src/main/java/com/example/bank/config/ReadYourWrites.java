@@ -0,0 +1,42 @@
+package com.example.bank.config;
+
+import com.example.bank.security.service.UserDetailsImpl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Users who changed their own cards within {@code replica.read-your-writes-window}. Their read-only
+ * transactions go to the primary, so a balance read right after a transfer never comes from a replica that
+ * has not replayed it yet. The window should exceed {@code replica.max-lag}.
+ * <p>
+ * Tracked per node: a read that lands on another node within the window is only bounded by the lag limit.
+ */
+@Component
+public class ReadYourWrites {
+
+    private final Cache<Long, Boolean> recentWriters;
+
+    public ReadYourWrites(@Value("${replica.read-your-writes-window:10s}") Duration window,
+                          @Value("${replica.read-your-writes-maximum-size:100000}") long maximumSize) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    public void recordWrite(Long userId) {
+        recentWriters.put(userId, Boolean.TRUE);
+    }
+
+    public boolean currentUserWroteRecently() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl user
+                && recentWriters.getIfPresent(user.getId()) != null;
+    }
+}
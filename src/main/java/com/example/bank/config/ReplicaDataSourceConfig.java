@@ -0,0 +1,76 @@
+package com.example.bank.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the auto-configured pool with a primary pool plus one pool per {@code replica.urls} entry, routed by
+ * {@link ReplicaRoutingDataSource}. Without {@code replica.urls} the single auto-configured pool is used.
+ * Replica pools copy the {@code spring.datasource.hikari.*} settings of the primary.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "replica", name = "urls")
+public class ReplicaDataSourceConfig {
+
+    /**
+     * Not wrapped by the {@link DataSourceConfig} post-processors; they wrap {@link #dataSource} instead.
+     */
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            DataSourceProperties properties, Environment environment, ReadYourWrites readYourWrites,
+            MeterRegistry meterRegistry,
+            @Value("${replica.urls}") List<String> urls,
+            @Value("${replica.username:${spring.datasource.username}}") String username,
+            @Value("${replica.password:${spring.datasource.password}}") String password,
+            @Value("${replica.pool-size:0}") int poolSize,
+            @Value("${replica.max-lag:5s}") Duration maxLag) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        if (primary.getPoolName() == null) {
+            primary.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+        }
+        primary.setMetricRegistry(meterRegistry);
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariConfig config = new HikariConfig();
+            primary.copyStateTo(config);
+            config.setJdbcUrl(urls.get(i));
+            config.setUsername(username);
+            config.setPassword(password);
+            config.setPoolName("replica-" + (i + 1));
+            config.setReadOnly(true);
+            // A replica that is down at startup is skipped by the lag check instead of failing the application
+            config.setInitializationFailTimeout(-1);
+            if (poolSize > 0) {
+                config.setMaximumPoolSize(poolSize);
+            }
+            replicas.put(config.getPoolName(), new HikariDataSource(config));
+        }
+
+        return new ReplicaRoutingDataSource(primary, replicas, readYourWrites, maxLag, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.bank.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a replica and everything else to the primary. Only usable behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the transaction is marked read-only
+ * after it has asked for a connection, so the physical connection must be fetched on the first statement.
+ * <p>
+ * Replicas take turns. A replica is skipped while its last lag check failed or reported more than
+ * {@code maxLag}; with no replica left, and for users in their {@link ReadYourWrites} window, reads use the primary.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    static final String PRIMARY = "primary";
+
+    /**
+     * Replay delay in milliseconds; 0 once all received WAL is replayed, as an idle primary writes nothing new.
+     */
+    private static final String LAG_SQL = """
+            SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                        ELSE coalesce(extract(epoch FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+                   END""";
+
+    private static final int LAG_QUERY_TIMEOUT_SECONDS = 2;
+
+    private final List<Replica> replicas = new ArrayList<>();
+
+    private final ReadYourWrites readYourWrites;
+
+    private final long maxLagMillis;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private final Counter primaryConnections;
+
+    private final Counter replicaConnections;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, ReadYourWrites readYourWrites,
+                                    Duration maxLag, MeterRegistry meterRegistry) {
+        this.readYourWrites = readYourWrites;
+        this.maxLagMillis = maxLag.toMillis();
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.forEach((name, dataSource) -> {
+            Replica replica = new Replica(name, dataSource);
+            this.replicas.add(replica);
+            targets.put(name, dataSource);
+            Gauge.builder("bank.datasource.replica.lag", replica, r -> r.lagMillis < 0 ? Double.NaN : r.lagMillis / 1000.0)
+                    .description("Replay lag of the replica at the last check, NaN when the check failed")
+                    .baseUnit("seconds")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+        });
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+
+        this.primaryConnections = routedCounter(meterRegistry, PRIMARY);
+        this.replicaConnections = routedCounter(meterRegistry, "replica");
+    }
+
+    private static Counter routedCounter(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("bank.datasource.routed")
+                .description("Physical connections handed out by target")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !readYourWrites.currentUserWroteRecently()) {
+            int start = nextReplica.getAndIncrement();
+            for (int i = 0; i < replicas.size(); i++) {
+                Replica replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+                if (replica.lagMillis >= 0 && replica.lagMillis <= maxLagMillis) {
+                    replicaConnections.increment();
+                    return replica.name;
+                }
+            }
+        }
+        primaryConnections.increment();
+        return PRIMARY;
+    }
+
+    @Scheduled(fixedDelayString = "${replica.lag-check-interval:1s}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            long lagMillis = measureLag(replica);
+            if (lagMillis > maxLagMillis && replica.lagMillis <= maxLagMillis) {
+                log.warn("Replica {} is {} ms behind, reading from the primary until it catches up", replica.name, lagMillis);
+            }
+            replica.lagMillis = lagMillis;
+        }
+    }
+
+    /**
+     * @return the lag in milliseconds, or -1 when the replica cannot be reached
+     */
+    private long measureLag(Replica replica) {
+        try (Connection connection = replica.dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(LAG_QUERY_TIMEOUT_SECONDS);
+            try (ResultSet resultSet = statement.executeQuery(LAG_SQL)) {
+                resultSet.next();
+                return resultSet.getLong(1);
+            }
+        } catch (SQLException e) {
+            if (replica.lagMillis >= 0) {
+                log.warn("Replica {} is unavailable, reading from the primary", replica.name, e);
+            }
+            return -1;
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource dataSource : getResolvedDataSources().values()) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private static final class Replica {
+
+        private final String name;
+
+        private final DataSource dataSource;
+
+        /**
+         * -1 until the first successful check
+         */
+        private volatile long lagMillis = -1;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
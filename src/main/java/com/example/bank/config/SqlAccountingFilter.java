@@ -0,0 +1,66 @@
+package com.example.bank.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Collects {@link SqlStatistics} for each request and reports them in a {@code Server-Timing} header
+ * and a debug log line. Runs before Spring Security so user lookups during authentication are counted.
+ * The header carries what ran before the response was committed; the log line carries everything.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "sql-accounting.enabled", havingValue = "true")
+public class SqlAccountingFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatistics statistics = SqlStatistics.start();
+        ServerTimingResponse timedResponse = new ServerTimingResponse(response, statistics);
+        try {
+            filterChain.doFilter(request, timedResponse);
+        } finally {
+            timedResponse.addServerTiming();
+            SqlStatistics.clear();
+            log.debug("{} {} -> {} statements, {} rows, {} ms in JDBC", request.getMethod(), request.getRequestURI(),
+                    statistics.getStatements(), statistics.getRows(), String.format("%.3f", statistics.getJdbcMillis()));
+        }
+    }
+
+    private static final class ServerTimingResponse extends OnCommittedResponseWrapper {
+
+        private final SqlStatistics statistics;
+
+        private boolean headerAdded;
+
+        ServerTimingResponse(HttpServletResponse response, SqlStatistics statistics) {
+            super(response);
+            this.statistics = statistics;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            addServerTiming();
+        }
+
+        void addServerTiming() {
+            if (!headerAdded && !isCommitted()) {
+                headerAdded = true;
+                addHeader(SqlStatistics.SERVER_TIMING_HEADER, statistics.toServerTiming());
+            }
+        }
+    }
+}
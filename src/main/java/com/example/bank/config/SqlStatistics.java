@@ -0,0 +1,75 @@
+package com.example.bank.config;
+
+import java.util.Locale;
+
+/**
+ * SQL statements, rows and JDBC time of the current request, kept on the request thread.
+ * Rows are rows read from result sets plus rows reported by updates.
+ */
+public final class SqlStatistics {
+
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    private static final ThreadLocal<SqlStatistics> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+
+    private long rows;
+
+    private long jdbcNanos;
+
+    private long statementStartedAt;
+
+    private SqlStatistics() {
+    }
+
+    static SqlStatistics start() {
+        SqlStatistics statistics = new SqlStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    /**
+     * @return statistics of the request running on this thread, or null outside a request
+     */
+    static SqlStatistics current() {
+        return CURRENT.get();
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    void statementStarted() {
+        statementStartedAt = System.nanoTime();
+    }
+
+    void statementFinished(long updatedRows) {
+        statements++;
+        rows += updatedRows;
+        jdbcNanos += System.nanoTime() - statementStartedAt;
+    }
+
+    void rowRead() {
+        rows++;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public double getJdbcMillis() {
+        return jdbcNanos / 1_000_000.0;
+    }
+
+    /**
+     * @return the {@code Server-Timing} entry, e.g. {@code db;dur=1.250;desc="statements=2 rows=20"}
+     */
+    public String toServerTiming() {
+        return String.format(Locale.ROOT, "db;dur=%.3f;desc=\"statements=%d rows=%d\"", getJdbcMillis(), statements, rows);
+    }
+}
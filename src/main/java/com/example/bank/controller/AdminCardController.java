@@ -1,10 +1,18 @@
 package com.example.bank.controller;
 
+import com.example.bank.model.dto.request.CardBulkFilter;
 import com.example.bank.model.dto.request.CardCreateRequest;
+import com.example.bank.model.dto.response.BulkCardOperationResponse;
+import com.example.bank.model.dto.response.CardImportResponse;
 import com.example.bank.model.dto.response.CardResponse;
+import com.example.bank.model.dto.response.CursorPageResponse;
 import com.example.bank.model.dto.response.UserResponse;
 import com.example.bank.model.entity.CardStatus;
+import com.example.bank.service.CardBulkService;
+import com.example.bank.service.CardImportService;
 import com.example.bank.service.CardService;
+import com.example.bank.service.ExportFormat;
+import com.example.bank.service.ExportService;
 import com.example.bank.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,16 +20,23 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 
 @RestController
 @RequestMapping("/api/admin/cards")
@@ -31,7 +46,10 @@ import javax.validation.Valid;
 public class AdminCardController {
 
     private final CardService cardService;
+    private final CardBulkService cardBulkService;
+    private final CardImportService cardImportService;
     private final UserService userService;
+    private final ExportService exportService;
 
 
     @Operation(summary = "Создание новой карты", description = "Администратор может создать новую карту для пользователя")
@@ -63,6 +81,25 @@ public class AdminCardController {
     }
 
 
+    @Operation(summary = "Получить все карты по курсору",
+            description = "Курсорная пагинация без подсчёта общего количества: пустой cursor возвращает первую страницу, " +
+                    "nextCursor из ответа — следующую")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Успешный ответ",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = CursorPageResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Некорректный курсор", content = @Content)
+    })
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPageResponse<CardResponse>> scrollAllCards(
+            @RequestParam(required = false) String ownerEmail,
+            @RequestParam(required = false) CardStatus status,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(cardService.scrollAllCards(ownerEmail, status, cursor, size));
+    }
+
+
     @Operation(summary = "Блокировка карты", description = "Администратор блокирует карту по ID")
     @ApiResponses({
             @ApiResponse(responseCode = "204", description = "Карта успешно заблокирована", content = @Content),
@@ -96,6 +133,88 @@ public class AdminCardController {
         return ResponseEntity.noContent().build();
     }
 
+    @Operation(summary = "Массовая блокировка карт",
+            description = "Блокирует все карты, подходящие под фильтр (владелец, статус, список ID, диапазон срока " +
+                    "действия), без загрузки карт по одной. Пустой фильтр отклоняется")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Количество заблокированных карт",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = BulkCardOperationResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Пустой или некорректный фильтр", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Владелец не найден", content = @Content)
+    })
+    @PostMapping("/bulk/block")
+    public ResponseEntity<BulkCardOperationResponse> blockCards(@Valid @RequestBody CardBulkFilter filter) {
+        return ResponseEntity.ok(cardBulkService.changeStatus(filter, CardStatus.BLOCKED));
+    }
+
+    @Operation(summary = "Массовая активация карт",
+            description = "Активирует все карты, подходящие под фильтр. Пустой фильтр отклоняется")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Количество активированных карт",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = BulkCardOperationResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Пустой или некорректный фильтр", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Владелец не найден", content = @Content)
+    })
+    @PostMapping("/bulk/activate")
+    public ResponseEntity<BulkCardOperationResponse> activateCards(@Valid @RequestBody CardBulkFilter filter) {
+        return ResponseEntity.ok(cardBulkService.changeStatus(filter, CardStatus.ACTIVE));
+    }
+
+    @Operation(summary = "Массовое удаление карт",
+            description = "Удаляет все карты, подходящие под фильтр. Пустой фильтр отклоняется")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Количество удалённых карт",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = BulkCardOperationResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Пустой или некорректный фильтр", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Владелец не найден", content = @Content)
+    })
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<BulkCardOperationResponse> deleteCards(@Valid @RequestBody CardBulkFilter filter) {
+        return ResponseEntity.ok(cardBulkService.delete(filter));
+    }
+
+    @Operation(summary = "Массовый выпуск карт",
+            description = "Загрузка карт из CSV или NDJSON с колонками ownerEmail, cardNumber, expirationDate, status, "
+                    + "balance. Ошибочные строки пропускаются и перечисляются в ответе; если загрузка прервалась, "
+                    + "её можно повторить с offset=nextOffset")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Загрузка обработана",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = CardImportResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Неверный запрос", content = @Content)
+    })
+    @PostMapping("/import")
+    public ResponseEntity<CardImportResponse> importCards(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @RequestParam(defaultValue = "0") long offset,
+            InputStream upload) throws IOException {
+        return ResponseEntity.ok(cardImportService.importCards(upload, format, offset));
+    }
+
+    @Operation(summary = "Выгрузка карт",
+            description = "Потоковая выгрузка всех карт в NDJSON или CSV с фильтрацией. Номера карт маскируются, "
+                    + "если не передан revealCardNumbers=true")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Выгрузка начата", content = {
+                    @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE),
+                    @Content(mediaType = "text/csv")}),
+            @ApiResponse(responseCode = "404", description = "Владелец не найден", content = @Content),
+            @ApiResponse(responseCode = "429", description = "Слишком много выгрузок одновременно", content = @Content)
+    })
+    @GetMapping("/export")
+    public WebAsyncTask<Void> exportCards(
+            @RequestParam(required = false) String ownerEmail,
+            @RequestParam(required = false) CardStatus status,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean revealCardNumbers,
+            HttpServletResponse response) {
+        return export("cards", format, exportService.exportCards(ownerEmail, status, revealCardNumbers, format),
+                response);
+    }
+
     @Operation(summary = "Получить всех пользователей", description = "Администратор может просмотреть список пользователей с фильтрацией по email")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Успешный ответ",
@@ -108,4 +227,44 @@ public class AdminCardController {
             Pageable pageable) {
         return ResponseEntity.ok(userService.getAllUsers(email, pageable));
     }
+
+    @Operation(summary = "Получить всех пользователей по курсору",
+            description = "Курсорная пагинация пользователей без подсчёта общего количества")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Успешный ответ",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = CursorPageResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Некорректный курсор", content = @Content)
+    })
+    @GetMapping(value = "/users", params = "cursor")
+    public ResponseEntity<CursorPageResponse<UserResponse>> scrollAllUsers(
+            @RequestParam(required = false) String email,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(userService.scrollAllUsers(email, cursor, size));
+    }
+
+    @Operation(summary = "Выгрузка пользователей", description = "Потоковая выгрузка всех пользователей в NDJSON или CSV")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Выгрузка начата", content = {
+                    @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE),
+                    @Content(mediaType = "text/csv")}),
+            @ApiResponse(responseCode = "429", description = "Слишком много выгрузок одновременно", content = @Content)
+    })
+    @GetMapping("/users/export")
+    public WebAsyncTask<Void> exportUsers(@RequestParam(defaultValue = "NDJSON") ExportFormat format,
+                                          HttpServletResponse response) {
+        return export("users", format, exportService.exportUsers(format), response);
+    }
+
+    private WebAsyncTask<Void> export(String name, ExportFormat format, StreamingResponseBody body,
+                                      HttpServletResponse response) {
+        WebAsyncTask<Void> task = exportService.start(body, response);
+        ContentDisposition attachment = ContentDisposition.attachment()
+                .filename(name + "." + format.getExtension())
+                .build();
+        response.setContentType(format.getMediaType().toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, attachment.toString());
+        return task;
+    }
 }
\ No newline at end of file
@@ -1,14 +1,17 @@
 package com.example.bank.controller;
 
 import com.example.bank.model.dto.request.LoginRequest;
+import com.example.bank.model.dto.request.RefreshTokenRequest;
 import com.example.bank.model.dto.request.SignupRequest;
 import com.example.bank.model.dto.response.JwtResponse;
 import com.example.bank.model.dto.response.MessageResponse;
 import com.example.bank.model.entity.Role;
 import com.example.bank.model.entity.User;
-import com.example.bank.security.jwt.JwtUtils;
+import com.example.bank.security.LoginRateLimiter;
 import com.example.bank.security.service.UserDetailsImpl;
+import com.example.bank.service.AuthSessionService;
 import com.example.bank.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,7 +26,6 @@ import org.springframework.web.bind.annotation.*;
 import javax.validation.Valid;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -35,28 +37,36 @@ public class AuthController {
 
     private final PasswordEncoder passwordEncoder;
 
-    private final JwtUtils jwtUtils;
+    private final AuthSessionService authSessionService;
+    private final LoginRateLimiter loginRateLimiter;
     private final UserService userService;
 
     @PostMapping("/signin")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest){
-
+    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest,
+                                              HttpServletRequest request){
+        loginRateLimiter.acquire(request.getRemoteAddr(), loginRequest.getEmail());
 
         Authentication authentication = authenticationManager
                 .authenticate(new UsernamePasswordAuthenticationToken(loginRequest.getEmail()
                         ,loginRequest.getPassword()));
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = jwtUtils.generateJwtToken(authentication);
 
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
 
-        Set<String> roles = userDetails.getAuthorities().stream().map(role -> role.getAuthority())
-                .collect(Collectors.toSet());
-
         return ResponseEntity
-                .ok(new JwtResponse(jwt, userDetails.getId(), userDetails.getUsername(),
-                        roles));
+                .ok(authSessionService.startSession(userDetails));
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<JwtResponse> refreshToken(@Valid @RequestBody RefreshTokenRequest refreshTokenRequest){
+        return ResponseEntity.ok(authSessionService.refresh(refreshTokenRequest.getRefreshToken()));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@Valid @RequestBody RefreshTokenRequest refreshTokenRequest){
+        authSessionService.logout(refreshTokenRequest.getRefreshToken());
+        return ResponseEntity.noContent().build();
     }
 
     @PostMapping("/signup")
@@ -1,8 +1,12 @@
 package com.example.bank.controller;
 
+import com.example.bank.model.dto.request.BatchTransferRequest;
 import com.example.bank.model.dto.request.TransferRequest;
 import com.example.bank.model.dto.response.BalanceResponse;
+import com.example.bank.model.dto.response.BatchTransferResponse;
+import com.example.bank.model.dto.response.CardEventResponse;
 import com.example.bank.model.dto.response.CardResponse;
+import com.example.bank.model.dto.response.CursorPageResponse;
 import com.example.bank.model.entity.CardStatus;
 import com.example.bank.security.service.UserDetailsImpl;
 import com.example.bank.service.CardService;
@@ -18,11 +22,15 @@ import org.apache.tomcat.util.net.openssl.ciphers.Authentication;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import javax.validation.Valid;
 import java.time.LocalDate;
@@ -35,22 +43,69 @@ import java.time.LocalDate;
 @Tag(name = "User Cards Controller", description = "Эндпоинты для управления картами текущего пользователя")
 public class UserCardController {
 
+    /**
+     * Replaces the no-store default of Spring Security, so HTTP clients keep the response and revalidate it
+     * with If-None-Match.
+     */
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final CardService cardService;
 
 
-    @Operation(summary = "Получить мои карты", description = "Возвращает страницу с картами текущего аутентифицированного пользователя")
+    @Operation(summary = "Получить мои карты", description = "Возвращает страницу с картами текущего аутентифицированного пользователя. " +
+            "Ответ содержит ETag; запрос с If-None-Match получает 304, если карты не изменились")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Успешно получены карты",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = CardResponse.class))),
+            @ApiResponse(responseCode = "304", description = "Карты не изменились", content = @Content),
             @ApiResponse(responseCode = "401", description = "Пользователь не авторизован", content = @Content)
     })
     @GetMapping()
     public ResponseEntity<Page<CardResponse>> getMyCards(@AuthenticationPrincipal UserDetailsImpl currentUser,
-                                                         Pageable pageable) {
+                                                         Pageable pageable, WebRequest webRequest) {
+        if (webRequest.checkNotModified(cardService.getUserCardsETag(currentUser.getEmail()))) {
+            return null;
+        }
         Page<CardResponse> cards = cardService.getUserCards(currentUser.getEmail(), pageable);
 
-        return ResponseEntity.ok(cards);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(cards);
+    }
+
+    @Operation(summary = "Получить мои карты по курсору",
+            description = "Курсорная пагинация без подсчёта общего количества: пустой cursor возвращает первую страницу, " +
+                    "nextCursor из ответа — следующую")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Успешно получены карты",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = CursorPageResponse.class))),
+            @ApiResponse(responseCode = "304", description = "Карты не изменились", content = @Content),
+            @ApiResponse(responseCode = "400", description = "Некорректный курсор", content = @Content)
+    })
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPageResponse<CardResponse>> scrollMyCards(@AuthenticationPrincipal UserDetailsImpl currentUser,
+                                                                          @RequestParam String cursor,
+                                                                          @RequestParam(defaultValue = "20") int size,
+                                                                          WebRequest webRequest) {
+        if (webRequest.checkNotModified(cardService.getUserCardsETag(currentUser.getEmail()))) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(REVALIDATE)
+                .body(cardService.scrollUserCards(currentUser.getEmail(), cursor, size));
+    }
+
+    @Operation(summary = "Поток изменений моих карт",
+            description = "Server-Sent Events: сначала текущее состояние каждой карты, затем событие card при каждом " +
+                    "изменении баланса или статуса. Событие resync означает, что изменений накопилось слишком много " +
+                    "и карты нужно запросить заново")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Поток событий открыт",
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                            schema = @Schema(implementation = CardEventResponse.class)))
+    })
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMyCards(@AuthenticationPrincipal UserDetailsImpl currentUser) {
+        return cardService.streamUserCards(currentUser.getEmail());
     }
 
     @Operation(summary = "Запрос на блокировку карты", description = "Отправляет запрос на блокировку карты пользователя по ID")
@@ -65,30 +120,60 @@ public class UserCardController {
         return ResponseEntity.noContent().build();
     }
 
-    @Operation(summary = "Перевод между картами", description = "Выполняет перевод между картами текущего пользователя")
+    @Operation(summary = "Перевод между картами",
+            description = "Выполняет перевод между картами текущего пользователя. Повтор запроса с тем же " +
+                    "заголовком Idempotency-Key не списывает средства повторно")
     @ApiResponses({
             @ApiResponse(responseCode = "204", description = "Перевод выполнен", content = @Content),
             @ApiResponse(responseCode = "400", description = "Неверные параметры запроса", content = @Content),
-            @ApiResponse(responseCode = "404", description = "Одна из карт не найдена или не принадлежит пользователю", content = @Content)
+            @ApiResponse(responseCode = "404", description = "Одна из карт не найдена или не принадлежит пользователю", content = @Content),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key уже использован для другого перевода", content = @Content)
     })
     @PostMapping("/transfer")
     public ResponseEntity<Void> transferBetweenCards(@AuthenticationPrincipal UserDetailsImpl currentUser,
-            @Valid @RequestBody TransferRequest request) {
+            @Valid @RequestBody TransferRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
 
-        cardService.transferBetweenUserCards(currentUser.getEmail(), request);
+        cardService.transferBetweenUserCards(currentUser.getEmail(), request, idempotencyKey);
         return ResponseEntity.noContent().build();
     }
 
-    @Operation(summary = "Получить баланс карты", description = "Возвращает баланс указанной карты текущего пользователя")
+    @Operation(summary = "Пакетный перевод между картами",
+            description = "Выполняет список переводов одной транзакцией в режиме ALL_OR_NOTHING или BEST_EFFORT")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Пакет обработан, результат по каждому переводу",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BatchTransferResponse.class))),
+            @ApiResponse(responseCode = "422", description = "Пакет отклонён в режиме ALL_OR_NOTHING",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BatchTransferResponse.class)))
+    })
+    @PostMapping("/transfers/batch")
+    public ResponseEntity<BatchTransferResponse> transferBatch(@AuthenticationPrincipal UserDetailsImpl currentUser,
+            @Valid @RequestBody BatchTransferRequest request) {
+        BatchTransferResponse response = cardService.transferBatch(currentUser.getEmail(), request);
+        if (!response.isApplied()) {
+            return ResponseEntity.unprocessableEntity().body(response);
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Получить баланс карты", description = "Возвращает баланс указанной карты текущего пользователя. " +
+            "Ответ содержит ETag; запрос с If-None-Match получает 304, если баланс и статус карты не изменились")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Баланс успешно получен",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = BalanceResponse.class))),
+            @ApiResponse(responseCode = "304", description = "Баланс не изменился", content = @Content),
             @ApiResponse(responseCode = "404", description = "Карта не найдена или не принадлежит пользователю", content = @Content)
     })
     @GetMapping("/{cardId}/balance")
     public ResponseEntity<BalanceResponse> getCardBalance(@AuthenticationPrincipal UserDetailsImpl currentUser,
-                                                          @PathVariable Long cardId) {
-        return ResponseEntity.ok(cardService.getCardBalance(currentUser.getEmail(), cardId));
+                                                          @PathVariable Long cardId, WebRequest webRequest) {
+        if (webRequest.checkNotModified(cardService.getCardBalanceETag(currentUser.getEmail(), cardId))) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(REVALIDATE)
+                .body(cardService.getCardBalance(currentUser.getEmail(), cardId));
     }
 }
\ No newline at end of file
@@ -0,0 +1,88 @@
+package com.example.bank.db.changelog;
+
+import com.example.bank.model.converter.CardNumberConverter;
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.SetupException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+import lombok.Setter;
+import org.springframework.security.crypto.encrypt.Encryptors;
+import org.springframework.security.crypto.encrypt.TextEncryptor;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * Decrypts existing card numbers once to fill {@code cards.last_four_digits}.
+ * SQL alone cannot do it because the numbers are encrypted by the application.
+ */
+@Setter
+public class BackfillCardLastFourDigits implements CustomTaskChange {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private String password;
+
+    private String salt;
+
+    private int updated;
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        TextEncryptor encryptor = Encryptors.text(password, salt);
+        JdbcConnection connection = (JdbcConnection) database.getConnection();
+
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT id, card_number FROM cards WHERE last_four_digits IS NULL");
+             PreparedStatement update = connection.prepareStatement(
+                     "UPDATE cards SET last_four_digits = ? WHERE id = ?")) {
+            select.setFetchSize(BATCH_SIZE);
+            try (ResultSet rows = select.executeQuery()) {
+                int pending = 0;
+                while (rows.next()) {
+                    String lastFourDigits = CardNumberConverter.lastFourDigits(encryptor.decrypt(rows.getString(2)));
+                    if (lastFourDigits == null) {
+                        continue;
+                    }
+                    update.setString(1, lastFourDigits);
+                    update.setLong(2, rows.getLong(1));
+                    update.addBatch();
+                    if (++pending == BATCH_SIZE) {
+                        update.executeBatch();
+                        pending = 0;
+                    }
+                    updated++;
+                }
+                if (pending > 0) {
+                    update.executeBatch();
+                }
+            }
+        } catch (Exception e) {
+            throw new CustomChangeException("Cannot backfill card last four digits", e);
+        }
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Backfilled last four digits of " + updated + " cards";
+    }
+
+    @Override
+    public void setUp() throws SetupException {
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+    }
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        ValidationErrors errors = new ValidationErrors();
+        errors.checkRequiredField("password", password);
+        errors.checkRequiredField("salt", salt);
+        return errors;
+    }
+}
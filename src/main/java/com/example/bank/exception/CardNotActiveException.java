@@ -0,0 +1,11 @@
+package com.example.bank.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class CardNotActiveException extends RuntimeException {
+    public CardNotActiveException(String message) {
+        super(message);
+    }
+}
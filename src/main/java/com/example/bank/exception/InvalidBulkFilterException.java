@@ -0,0 +1,11 @@
+package com.example.bank.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidBulkFilterException extends RuntimeException {
+    public InvalidBulkFilterException(String message) {
+        super(message);
+    }
+}
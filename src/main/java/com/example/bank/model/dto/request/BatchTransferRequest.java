@@ -0,0 +1,31 @@
+package com.example.bank.model.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransferRequest {
+
+    public static final int MAX_TRANSFERS = 1000;
+
+    @NotEmpty
+    @Size(max = MAX_TRANSFERS)
+    private List<@Valid TransferRequest> transfers;
+
+    private Mode mode = Mode.ALL_OR_NOTHING;
+
+    public enum Mode {
+        /** Nothing is written if at least one transfer is rejected */
+        ALL_OR_NOTHING,
+        /** Valid transfers are written, rejected ones are reported */
+        BEST_EFFORT
+    }
+}
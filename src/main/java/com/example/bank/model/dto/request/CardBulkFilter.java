@@ -0,0 +1,38 @@
+package com.example.bank.model.dto.request;
+
+import com.example.bank.model.entity.CardStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Size;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Selects the cards of a bulk admin operation. All given criteria must match; at least one is required.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardBulkFilter {
+
+    public static final int MAX_IDS = 10_000;
+
+    private String ownerEmail;
+
+    private CardStatus status;
+
+    @Size(max = MAX_IDS)
+    private List<Long> ids;
+
+    /** Inclusive */
+    private LocalDate expiresFrom;
+
+    /** Inclusive */
+    private LocalDate expiresTo;
+
+    public boolean hasCriteria() {
+        return ownerEmail != null || status != null || ids != null || expiresFrom != null || expiresTo != null;
+    }
+}
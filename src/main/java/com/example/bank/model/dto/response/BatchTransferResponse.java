@@ -0,0 +1,18 @@
+package com.example.bank.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchTransferResponse {
+
+    private boolean applied;
+    private int succeeded;
+    private int failed;
+    private List<TransferResultResponse> results;
+}
@@ -0,0 +1,13 @@
+package com.example.bank.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkCardOperationResponse {
+
+    private long affected;
+}
@@ -0,0 +1,18 @@
+package com.example.bank.model.dto.response;
+
+import com.example.bank.model.entity.CardStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CardEventResponse {
+
+    private Long id;
+    private BigDecimal balance;
+    private CardStatus status;
+}
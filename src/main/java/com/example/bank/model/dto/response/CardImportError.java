@@ -0,0 +1,15 @@
+package com.example.bank.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CardImportError {
+
+    /** 1-based number of the record in the upload, not counting the CSV header */
+    private long record;
+    private String message;
+}
@@ -0,0 +1,24 @@
+package com.example.bank.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CardImportResponse {
+
+    private long imported;
+    private long failed;
+    /**
+     * Records of the upload that are done, whether imported or rejected. When {@link #completed} is false,
+     * sending the same upload again with this value as {@code offset} continues where the import stopped.
+     */
+    private long nextOffset;
+    private boolean completed;
+    /** Rejected records, at most {@code card-import.max-errors} of them */
+    private List<CardImportError> errors;
+}
@@ -3,12 +3,14 @@ package com.example.bank.model.dto.response;
 import com.example.bank.model.entity.CardStatus;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Data
 @AllArgsConstructor
+@NoArgsConstructor
 public class CardResponse {
     private Long id;
     private String cardNumber;
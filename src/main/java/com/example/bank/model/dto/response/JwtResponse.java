@@ -8,14 +8,16 @@ import java.util.Set;
 public class JwtResponse {
 
     private String token;
+    private String refreshToken;
     private String type = "Bearer";
     private Long id;
     private String email;
     private String password;
     private Set<String> roles;
 
-    public JwtResponse(String token, Long id, String email, Set<String> roles) {
+    public JwtResponse(String token, String refreshToken, Long id, String email, Set<String> roles) {
         this.token = token;
+        this.refreshToken = refreshToken;
         this.id = id;
         this.email = email;
         this.roles = roles;
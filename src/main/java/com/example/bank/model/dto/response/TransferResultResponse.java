@@ -0,0 +1,24 @@
+package com.example.bank.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransferResultResponse {
+
+    private int index;
+    private Long sourceCardId;
+    private Long targetCardId;
+    private BigDecimal amount;
+    private Status status;
+    private String message;
+
+    public enum Status {
+        COMPLETED, REJECTED, SKIPPED
+    }
+}
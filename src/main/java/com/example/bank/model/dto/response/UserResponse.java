@@ -1,8 +1,12 @@
 package com.example.bank.model.dto.response;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@AllArgsConstructor
+@NoArgsConstructor
 public class UserResponse {
 
     private Long id;
@@ -1,22 +1,36 @@
 package com.example.bank.model.entity;
 
-import com.example.bank.model.converter.CardNumberConverter;
 import jakarta.persistence.*;
-import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.Hibernate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
 @Table(name = "cards")
-@Data
+@Getter
+@Setter
+@ToString(exclude = {"encryptedCardNumber", "owner"})
 public class Card {
+    /**
+     * Pooled sequence: one round trip reserves 50 ids, which lets Hibernate batch inserts (see CardImportService).
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cards_id_seq")
+    @SequenceGenerator(name = "cards_id_seq", sequenceName = "cards_id_seq", allocationSize = 50)
     private Long id;
 
-    @Convert(converter = CardNumberConverter.class)
-    private String cardNumber;
+    /**
+     * Card number encrypted with {@link com.example.bank.model.converter.CardNumberConverter}.
+     * It is only decrypted on demand; masked output uses {@link #lastFourDigits}.
+     */
+    @Column(name = "card_number")
+    private String encryptedCardNumber;
+
+    private String lastFourDigits;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
@@ -28,4 +42,29 @@ public class Card {
     private CardStatus status;
 
     private BigDecimal balance;
-}
\ No newline at end of file
+
+    /**
+     * Bumped by every balance or status change, including the bulk and JDBC updates, which do it explicitly.
+     */
+    @Version
+    private Long version;
+
+    /**
+     * Identity is the id only, so comparing cards never initializes the owner.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) {
+            return false;
+        }
+        return id != null && id.equals(((Card) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Card.class.hashCode();
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.bank.repository;
+
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+@Repository
+@AllArgsConstructor
+public class CardBalanceBatchRepository {
+
+    // Debits recheck what the debit query checks, since the batch was validated against unlocked reads
+    private static final String APPLY_DELTA_SQL = """
+            UPDATE cards SET balance = balance + ?, version = version + 1
+            WHERE id = ? AND balance + ? >= 0
+              AND (? >= 0 OR (status = 'ACTIVE' AND expiration_date >= current_date))""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Applies net balance changes as a single JDBC batch. Rows are updated in key order,
+     * which keeps the lock order deterministic across concurrent batches.
+     *
+     * @return update count per card, 0 when the change would overdraw the card or debit an inactive one
+     */
+    public int[] applyBalanceDeltas(SortedMap<Long, BigDecimal> deltas) {
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        for (Map.Entry<Long, BigDecimal> delta : deltas.entrySet()) {
+            args.add(new Object[]{delta.getValue(), delta.getKey(), delta.getValue(), delta.getValue()});
+        }
+        return jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, args);
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.bank.repository;
+
+import com.example.bank.model.entity.CardStatus;
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Set-based admin updates and deletes of cards. Rows are processed in chunks in ascending id order, each chunk
+ * a single statement in its own transaction, so row locks are short-lived and never taken out of order.
+ * A chunk may lock fewer rows than its limit when a row changed concurrently and no longer matches, so the scan
+ * continues after the last id it locked and ends only on a chunk that locked nothing.
+ * A failure leaves earlier chunks applied; the operations are idempotent and can be repeated. The ids of each
+ * chunk are handed to a callback once the chunk has committed.
+ */
+@Repository
+@AllArgsConstructor
+public class CardBulkRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param changed receives the ids of each committed chunk
+     * @return number of cards whose status changed; cards already in {@code target} are skipped
+     */
+    public long updateStatus(CardSelection selection, CardStatus target, int chunkSize, Consumer<List<Long>> changed) {
+        List<Object> filterArgs = new ArrayList<>();
+        String where = where(selection, filterArgs) + " AND status <> ?";
+        filterArgs.add(target.name());
+
+        return inChunks("""
+                WITH batch AS (
+                    SELECT id FROM cards WHERE id > ? AND %s ORDER BY id LIMIT ? FOR UPDATE
+                ), changed AS (
+                    UPDATE cards c SET status = ?, version = c.version + 1 FROM batch WHERE c.id = batch.id RETURNING c.id
+                )
+                SELECT (SELECT max(id) FROM batch), ARRAY(SELECT id FROM changed ORDER BY id)""".formatted(where),
+                filterArgs, List.of(target.name()), chunkSize, changed);
+    }
+
+    /**
+     * @param deleted receives the ids of each committed chunk
+     * @return number of deleted cards
+     */
+    public long delete(CardSelection selection, int chunkSize, Consumer<List<Long>> deleted) {
+        List<Object> filterArgs = new ArrayList<>();
+        String where = where(selection, filterArgs);
+
+        return inChunks("""
+                WITH batch AS (
+                    SELECT id FROM cards WHERE id > ? AND %s ORDER BY id LIMIT ? FOR UPDATE
+                ), deleted AS (
+                    DELETE FROM cards c USING batch WHERE c.id = batch.id RETURNING c.id
+                )
+                SELECT (SELECT max(id) FROM batch), ARRAY(SELECT id FROM deleted ORDER BY id)""".formatted(where),
+                filterArgs, List.of(), chunkSize, deleted);
+    }
+
+    /**
+     * Moves up to {@code limit} active cards past their expiration date to {@code EXPIRED}, oldest first.
+     * Rows locked by another sweeper or a transfer are skipped, so concurrent nodes never wait on each other.
+     *
+     * @return ids of the expired cards
+     */
+    public List<Long> expireActiveCards(int limit) {
+        return jdbcTemplate.queryForList("""
+                WITH batch AS (
+                    SELECT id FROM cards WHERE status = 'ACTIVE' AND expiration_date < current_date
+                    ORDER BY expiration_date LIMIT ? FOR UPDATE SKIP LOCKED
+                )
+                UPDATE cards c SET status = 'EXPIRED', version = c.version + 1 FROM batch WHERE c.id = batch.id
+                RETURNING c.id""", Long.class, limit);
+    }
+
+    private long inChunks(String sql, List<Object> filterArgs, List<Object> changeArgs, int chunkSize,
+                          Consumer<List<Long>> committed) {
+        long total = 0;
+        long afterId = 0;
+        while (true) {
+            List<Object> args = new ArrayList<>(filterArgs.size() + changeArgs.size() + 2);
+            args.add(afterId);
+            args.addAll(filterArgs);
+            args.add(chunkSize);
+            args.addAll(changeArgs);
+
+            Chunk chunk = queryChunk(sql, args);
+            if (chunk.lastId() == null) {
+                return total;
+            }
+            total += chunk.ids().size();
+            if (!chunk.ids().isEmpty()) {
+                committed.accept(chunk.ids());
+            }
+            afterId = chunk.lastId();
+        }
+    }
+
+    private Chunk queryChunk(String sql, List<Object> args) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            for (int i = 0; i < args.size(); i++) {
+                Object arg = args.get(i);
+                if (arg instanceof Long[] ids) {
+                    statement.setArray(i + 1, connection.createArrayOf("bigint", ids));
+                } else {
+                    statement.setObject(i + 1, arg);
+                }
+            }
+            return statement;
+        }, resultSet -> {
+            resultSet.next();
+            Long lastId = resultSet.getObject(1, Long.class);
+            List<Long> ids = List.of((Long[]) resultSet.getArray(2).getArray());
+            return new Chunk(lastId, ids);
+        });
+    }
+
+    private String where(CardSelection selection, List<Object> args) {
+        List<String> conditions = new ArrayList<>();
+        if (selection.ownerId() != null) {
+            conditions.add("user_id = ?");
+            args.add(selection.ownerId());
+        }
+        if (selection.status() != null) {
+            conditions.add("status = ?");
+            args.add(selection.status().name());
+        }
+        if (selection.ids() != null) {
+            conditions.add("id = ANY(?)");
+            args.add(selection.ids().toArray(Long[]::new));
+        }
+        if (selection.expiresFrom() != null) {
+            conditions.add("expiration_date >= ?");
+            args.add(selection.expiresFrom());
+        }
+        if (selection.expiresTo() != null) {
+            conditions.add("expiration_date <= ?");
+            args.add(selection.expiresTo());
+        }
+        if (conditions.isEmpty()) {
+            throw new IllegalArgumentException("Refusing a bulk operation on all cards");
+        }
+        return String.join(" AND ", conditions);
+    }
+
+    /**
+     * @param lastId highest id locked by the chunk, {@code null} when it locked nothing
+     * @param ids    ids the chunk changed, ascending
+     */
+    private record Chunk(Long lastId, List<Long> ids) {
+    }
+
+    public record CardSelection(Long ownerId, CardStatus status, List<Long> ids,
+                                LocalDate expiresFrom, LocalDate expiresTo) {
+    }
+}
@@ -1,8 +1,102 @@
 package com.example.bank.repository;
 
+import com.example.bank.model.dto.response.CardEventResponse;
 import com.example.bank.model.entity.Card;
+import com.example.bank.model.entity.CardStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface CardRepository extends JpaRepository<Card, Long>, JpaSpecificationExecutor<Card> {
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface CardRepository extends JpaRepository<Card, Long>, JpaSpecificationExecutor<Card>,
+        CardRepositoryCustom {
+
+    /**
+     * Ownership is part of the predicate, so a foreign card is simply not found.
+     */
+    Optional<Card> findByIdAndOwnerId(Long cardId, Long ownerId);
+
+    @Query("select c.balance from Card c where c.id = :cardId and c.owner.id = :ownerId")
+    Optional<BigDecimal> findBalanceByIdAndOwnerId(@Param("cardId") Long cardId, @Param("ownerId") Long ownerId);
+
+    /**
+     * Ownership is part of the predicate, as in {@link #findBalanceByIdAndOwnerId}.
+     */
+    @Query("select c.version from Card c where c.id = :cardId and c.owner.id = :ownerId")
+    Optional<Long> findVersionByIdAndOwnerId(@Param("cardId") Long cardId, @Param("ownerId") Long ownerId);
+
+    /**
+     * Digest of the ids and versions of all cards of the owner. It changes when a card is added, removed or
+     * changes balance or status, so it identifies the current state of every listing of the owner's cards.
+     */
+    @Query(value = "SELECT md5(coalesce(string_agg(id || ':' || version, ',' ORDER BY id), '')) " +
+            "FROM cards WHERE user_id = :ownerId", nativeQuery = true)
+    String findCardsDigestByOwnerId(@Param("ownerId") Long ownerId);
+
+    @Query("select c.id from Card c where c.owner.id = :ownerId")
+    List<Long> findIdsByOwnerId(@Param("ownerId") Long ownerId);
+
+    /**
+     * Runs right after the change was committed, so it is not read-only and reads from the primary, never a replica.
+     */
+    @Transactional
+    @Query("select new com.example.bank.model.dto.response.CardEventResponse(c.id, c.balance, c.status) " +
+            "from Card c where c.id in :cardIds")
+    List<CardEventResponse> findCardEvents(@Param("cardIds") Collection<Long> cardIds);
+
+    /**
+     * Atomically debits the card if it belongs to the owner, is active, not past its expiration date
+     * and has enough funds. The row lock is held only for the duration of the surrounding transaction.
+     *
+     * @return number of updated rows, 0 when the card is missing, foreign, inactive or underfunded
+     */
+    @Modifying
+    @Query("update Card c set c.balance = c.balance - :amount, c.version = c.version + 1 " +
+            "where c.id = :cardId and c.owner.id = :ownerId and c.balance >= :amount " +
+            "and c.status = com.example.bank.model.entity.CardStatus.ACTIVE and c.expirationDate >= current_date")
+    int debit(@Param("cardId") Long cardId, @Param("ownerId") Long ownerId, @Param("amount") BigDecimal amount);
+
+    /**
+     * The date the debit queries compare expiration against; the JVM may run in another time zone.
+     */
+    @Query(value = "select current_date", nativeQuery = true)
+    LocalDate currentDate();
+
+    @Modifying
+    @Query("update Card c set c.balance = c.balance + :amount, c.version = c.version + 1 where c.id = :cardId")
+    int credit(@Param("cardId") Long cardId, @Param("amount") BigDecimal amount);
+
+    /**
+     * Status changes are single updates rather than entity saves: a transfer that bumped the version since the card
+     * was read would otherwise fail the save with an optimistic lock error.
+     *
+     * @return number of updated rows, 0 when the card is missing
+     */
+    @Modifying
+    @Query("update Card c set c.status = :status, c.version = c.version + 1 where c.id = :cardId")
+    int updateStatus(@Param("cardId") Long cardId, @Param("status") CardStatus status);
+
+    /**
+     * @return number of updated rows, 0 when the card is missing, foreign or not active
+     */
+    @Modifying
+    @Query("update Card c set c.status = com.example.bank.model.entity.CardStatus.BLOCKED, c.version = c.version + 1 " +
+            "where c.id = :cardId and c.owner.id = :ownerId " +
+            "and c.status = com.example.bank.model.entity.CardStatus.ACTIVE")
+    int blockActiveCard(@Param("cardId") Long cardId, @Param("ownerId") Long ownerId);
+
+    /**
+     * @return number of deleted rows, 0 when the card is missing
+     */
+    @Modifying
+    @Query("delete from Card c where c.id = :cardId")
+    int deleteCardById(@Param("cardId") Long cardId);
 }
@@ -0,0 +1,34 @@
+package com.example.bank.repository;
+
+import com.example.bank.model.dto.response.CardResponse;
+import com.example.bank.model.entity.Card;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Card listings selected straight into {@link CardResponse} with the owner joined in,
+ * so a page is one query with no entity hydration or card number decryption.
+ */
+public interface CardRepositoryCustom {
+
+    String MASK_PREFIX = "**** **** **** ";
+
+    String MASKED_DIGITS = "****";
+
+    Page<CardResponse> findCardResponses(Specification<Card> spec, Pageable pageable);
+
+    /**
+     * Keyset page: cards matching the specification with an id greater than {@code afterId},
+     * ordered by id. Unlike {@link #findCardResponses} it never runs a count query.
+     */
+    List<CardResponse> findCardResponsesAfter(Specification<Card> spec, long afterId, int limit);
+
+    /**
+     * Persists new cards, flushes them in JDBC batches of {@code hibernate.jdbc.batch_size} and detaches them,
+     * so the persistence context does not grow with the number of cards. Must run in a transaction.
+     */
+    void insertAll(List<Card> cards);
+}
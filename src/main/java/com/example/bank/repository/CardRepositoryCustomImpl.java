@@ -0,0 +1,99 @@
+package com.example.bank.repository;
+
+import com.example.bank.model.dto.response.CardResponse;
+import com.example.bank.model.entity.Card;
+import com.example.bank.model.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+
+public class CardRepositoryCustomImpl implements CardRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<CardResponse> findCardResponses(Specification<Card> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<CardResponse> query = cb.createQuery(CardResponse.class);
+        Root<Card> root = query.from(Card.class);
+
+        select(query, root, cb);
+        Predicate filter = spec.toPredicate(root, query, cb);
+        if (filter != null) {
+            query.where(filter);
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+
+        var typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset())
+                    .setMaxResults(pageable.getPageSize());
+        }
+
+        return PageableExecutionUtils.getPage(typedQuery.getResultList(), pageable, () -> count(spec));
+    }
+
+    @Override
+    public List<CardResponse> findCardResponsesAfter(Specification<Card> spec, long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<CardResponse> query = cb.createQuery(CardResponse.class);
+        Root<Card> root = query.from(Card.class);
+
+        select(query, root, cb);
+        Predicate seek = cb.greaterThan(root.get("id"), afterId);
+        Predicate filter = spec.toPredicate(root, query, cb);
+        query.where(filter == null ? seek : cb.and(filter, seek))
+                .orderBy(cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private void select(CriteriaQuery<CardResponse> query, Root<Card> root, CriteriaBuilder cb) {
+        Join<Card, User> owner = root.join("owner");
+        query.select(cb.construct(CardResponse.class,
+                root.get("id"),
+                cb.concat(MASK_PREFIX, cb.coalesce(root.<String>get("lastFourDigits"), MASKED_DIGITS)),
+                owner.get("email"),
+                root.get("expirationDate"),
+                root.get("status"),
+                root.get("balance")));
+    }
+
+    private long count(Specification<Card> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Card> root = query.from(Card.class);
+
+        query.select(cb.count(root));
+        Predicate filter = spec.toPredicate(root, query, cb);
+        if (filter != null) {
+            query.where(filter);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    @Override
+    public void insertAll(List<Card> cards) {
+        for (Card card : cards) {
+            entityManager.persist(card);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
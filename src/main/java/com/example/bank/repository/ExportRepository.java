@@ -0,0 +1,55 @@
+package com.example.bank.repository;
+
+import com.example.bank.model.entity.CardStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Full-table reads for exports. Rows are fetched through a server-side cursor {@code export.fetch-size} at a time,
+ * which Postgres only uses inside a transaction, so callers must run these methods in one.
+ */
+@Repository
+public class ExportRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ExportRepository(DataSource dataSource, @Value("${export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    /**
+     * Columns: id, card_number (encrypted), masked_card_number, owner_email, expiration_date, status, balance.
+     */
+    public void streamCards(Long ownerId, CardStatus status, RowCallbackHandler handler) {
+        List<Object> args = new ArrayList<>(List.of(CardRepositoryCustom.MASK_PREFIX, CardRepositoryCustom.MASKED_DIGITS));
+        StringBuilder sql = new StringBuilder("""
+                SELECT c.id, c.card_number, ? || coalesce(c.last_four_digits, ?) AS masked_card_number,
+                       u.email AS owner_email, c.expiration_date, c.status, c.balance
+                FROM cards c JOIN users u ON u.id = c.user_id
+                WHERE 1 = 1""");
+        if (ownerId != null) {
+            sql.append(" AND c.user_id = ?");
+            args.add(ownerId);
+        }
+        if (status != null) {
+            sql.append(" AND c.status = ?");
+            args.add(status.name());
+        }
+        sql.append(" ORDER BY c.id");
+        jdbcTemplate.query(sql.toString(), handler, args.toArray());
+    }
+
+    /**
+     * Columns: id, email.
+     */
+    public void streamUsers(RowCallbackHandler handler) {
+        jdbcTemplate.query("SELECT id, email FROM users ORDER BY id", handler);
+    }
+}
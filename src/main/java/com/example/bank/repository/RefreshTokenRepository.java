@@ -0,0 +1,91 @@
+package com.example.bank.repository;
+
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Refresh tokens by SHA-256 hash, grouped into sessions, plus the revoked-session list polled by every node.
+ */
+@Repository
+@AllArgsConstructor
+public class RefreshTokenRepository {
+
+    private static final String USE_TOKEN_SQL = """
+            UPDATE refresh_tokens SET used_at = now()
+            WHERE token_hash = ? AND used_at IS NULL AND expires_at > now()
+            RETURNING session_id, user_id""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insert(String tokenHash, UUID sessionId, long userId, Instant expiresAt) {
+        jdbcTemplate.update("""
+                        INSERT INTO refresh_tokens (token_hash, session_id, user_id, expires_at)
+                        VALUES (?, ?, ?, ?)""",
+                tokenHash, sessionId, userId, Timestamp.from(expiresAt));
+    }
+
+    /**
+     * Marks an unused, unexpired token as used. Of two concurrent calls with the same token only one succeeds.
+     */
+    public Optional<TokenUse> use(String tokenHash) {
+        return jdbcTemplate.query(USE_TOKEN_SQL,
+                        (rs, rowNum) -> new TokenUse(rs.getObject("session_id", UUID.class), rs.getLong("user_id")),
+                        tokenHash)
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * @return the session of a token that was already exchanged once
+     */
+    public Optional<UUID> findSessionOfUsedToken(String tokenHash) {
+        return jdbcTemplate.queryForList("SELECT session_id FROM refresh_tokens WHERE token_hash = ? AND used_at IS NOT NULL",
+                UUID.class, tokenHash).stream().findFirst();
+    }
+
+    public Optional<UUID> findSession(String tokenHash) {
+        return jdbcTemplate.queryForList("SELECT session_id FROM refresh_tokens WHERE token_hash = ?",
+                UUID.class, tokenHash).stream().findFirst();
+    }
+
+    public int deleteSession(UUID sessionId) {
+        return jdbcTemplate.update("DELETE FROM refresh_tokens WHERE session_id = ?", sessionId);
+    }
+
+    public int deleteExpired() {
+        return jdbcTemplate.update("DELETE FROM refresh_tokens WHERE expires_at < now()");
+    }
+
+    public void insertRevocation(UUID sessionId, Instant expiresAt) {
+        jdbcTemplate.update("INSERT INTO token_revocations (session_id, expires_at) VALUES (?, ?)",
+                sessionId, Timestamp.from(expiresAt));
+    }
+
+    /**
+     * Sessions revoked at or after {@code since} whose access tokens may still be alive.
+     */
+    public List<UUID> findRevokedSessionsSince(Instant since) {
+        return jdbcTemplate.queryForList("""
+                        SELECT session_id FROM token_revocations
+                        WHERE created_at >= ? AND expires_at > now()""",
+                UUID.class, Timestamp.from(since));
+    }
+
+    public Instant currentTime() {
+        return jdbcTemplate.queryForObject("SELECT now()", Timestamp.class).toInstant();
+    }
+
+    public int deleteExpiredRevocations() {
+        return jdbcTemplate.update("DELETE FROM token_revocations WHERE expires_at < now()");
+    }
+
+    public record TokenUse(UUID sessionId, long userId) {
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.bank.repository;
+
+import com.example.bank.model.dto.request.TransferRequest;
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Writes the append-only {@code transactions} ledger and the idempotency keys of single transfers.
+ * Both are written through the caller's transaction, next to the balance updates they describe.
+ */
+@Repository
+@AllArgsConstructor
+public class TransactionLedgerRepository {
+
+    private static final String INSERT_TRANSACTION_SQL = """
+            INSERT INTO transactions (user_id, source_card_id, target_card_id, amount, idempotency_key)
+            VALUES (?, ?, ?, ?, ?)""";
+
+    private static final String CLAIM_IDEMPOTENCY_KEY_SQL = """
+            INSERT INTO transfer_idempotency_keys (user_id, idempotency_key, source_card_id, target_card_id, amount)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT DO NOTHING""";
+
+    private static final String FIND_IDEMPOTENT_TRANSFER_SQL = """
+            SELECT source_card_id, target_card_id, amount FROM transfer_idempotency_keys
+            WHERE user_id = ? AND idempotency_key = ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void record(long userId, TransferRequest transfer, String idempotencyKey) {
+        jdbcTemplate.update(INSERT_TRANSACTION_SQL, userId, transfer.getSourceCardId(), transfer.getTargetCardId(),
+                transfer.getAmount(), idempotencyKey);
+    }
+
+    public void recordAll(long userId, List<TransferRequest> transfers) {
+        List<Object[]> args = new ArrayList<>(transfers.size());
+        for (TransferRequest transfer : transfers) {
+            args.add(new Object[]{userId, transfer.getSourceCardId(), transfer.getTargetCardId(),
+                    transfer.getAmount(), null});
+        }
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION_SQL, args);
+    }
+
+    /**
+     * Inserts the key unless it exists. A concurrent insert of the same key blocks on the primary key
+     * until the other transaction ends, so only one of two racing retries can claim it.
+     *
+     * @return true when this call claimed the key
+     */
+    public boolean claimIdempotencyKey(long userId, String idempotencyKey, TransferRequest transfer) {
+        return jdbcTemplate.update(CLAIM_IDEMPOTENCY_KEY_SQL, userId, idempotencyKey, transfer.getSourceCardId(),
+                transfer.getTargetCardId(), transfer.getAmount()) == 1;
+    }
+
+    public Optional<TransferRequest> findIdempotentTransfer(long userId, String idempotencyKey) {
+        return jdbcTemplate.query(FIND_IDEMPOTENT_TRANSFER_SQL,
+                (rs, rowNum) -> new TransferRequest(rs.getLong(1), rs.getLong(2), rs.getBigDecimal(3)),
+                userId, idempotencyKey).stream().findFirst();
+    }
+
+    public int deleteIdempotencyKeysCreatedBefore(Instant cutoff) {
+        return jdbcTemplate.update("DELETE FROM transfer_idempotency_keys WHERE created_at < ?", Timestamp.from(cutoff));
+    }
+
+    /**
+     * Creates the partition holding {@code month} (UTC) unless it already exists.
+     */
+    public void createMonthlyPartition(YearMonth month) {
+        Instant from = month.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+        Instant to = month.plusMonths(1).atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+        jdbcTemplate.execute(String.format(
+                "CREATE TABLE IF NOT EXISTS transactions_%d_%02d PARTITION OF transactions FOR VALUES FROM ('%s') TO ('%s')",
+                month.getYear(), month.getMonthValue(), from, to));
+    }
+}
@@ -1,11 +1,20 @@
 package com.example.bank.repository;
 
-import com.example.bank.model.entity.Card;
+import com.example.bank.model.dto.response.UserResponse;
 import com.example.bank.model.entity.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -13,4 +22,25 @@ public interface UserRepository extends JpaRepository<User,Long>, JpaSpecificati
     Optional<User> findByEmail(String email);
 
     boolean existsByEmail(String email);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :password where u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
+
+    @Query(value = "select new com.example.bank.model.dto.response.UserResponse(u.id, u.email) from User u",
+            countQuery = "select count(u) from User u")
+    Page<UserResponse> findUserResponses(Pageable pageable);
+
+    @Query("select new com.example.bank.model.dto.response.UserResponse(u.id, u.email) from User u " +
+            "where u.email = :email")
+    Optional<UserResponse> findUserResponseByEmail(@Param("email") String email);
+
+    @Query("select new com.example.bank.model.dto.response.UserResponse(u.id, u.email) from User u " +
+            "where u.id > :afterId order by u.id")
+    List<UserResponse> findUserResponsesAfter(@Param("afterId") long afterId, Limit limit);
+
+    @Query("select new com.example.bank.model.dto.response.UserResponse(u.id, u.email) from User u " +
+            "where u.email in :emails")
+    List<UserResponse> findUserResponsesByEmailIn(@Param("emails") Collection<String> emails);
 }
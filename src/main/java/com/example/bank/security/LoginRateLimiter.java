@@ -0,0 +1,119 @@
+package com.example.bank.security;
+
+import com.example.bank.exception.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Throttles sign-in attempts per client IP and per email before any password check or database lookup.
+ * <p>
+ * Each key is a token bucket stored as a single theoretical arrival time (GCRA) and updated with a CAS loop, so
+ * attempts never lock. A bucket idle for longer than it takes to refill completely is indistinguishable from a new
+ * one, so entries expire after that time, and the map is capped at {@code login-rate-limit.maximum-size} keys.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private final boolean enabled;
+
+    private final Limit ipLimit;
+
+    private final Limit emailLimit;
+
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public LoginRateLimiter(MeterRegistry meterRegistry,
+                            @Value("${login-rate-limit.enabled:true}") boolean enabled,
+                            @Value("${login-rate-limit.ip.burst:20}") int ipBurst,
+                            @Value("${login-rate-limit.ip.refill-interval:500ms}") Duration ipRefillInterval,
+                            @Value("${login-rate-limit.email.burst:5}") int emailBurst,
+                            @Value("${login-rate-limit.email.refill-interval:20s}") Duration emailRefillInterval,
+                            @Value("${login-rate-limit.maximum-size:100000}") long maximumSize) {
+        this(meterRegistry, enabled, ipBurst, ipRefillInterval, emailBurst, emailRefillInterval, maximumSize,
+                System::nanoTime);
+    }
+
+    LoginRateLimiter(MeterRegistry meterRegistry, boolean enabled, int ipBurst, Duration ipRefillInterval,
+                     int emailBurst, Duration emailRefillInterval, long maximumSize, LongSupplier nanoClock) {
+        this.enabled = enabled;
+        this.ipLimit = new Limit("ip", ipBurst, ipRefillInterval, maximumSize, meterRegistry);
+        this.emailLimit = new Limit("email", emailBurst, emailRefillInterval, maximumSize, meterRegistry);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Takes one token for the IP and, if that succeeds, one for the email.
+     *
+     * @throws TooManyRequestsException when either bucket is empty, with the time until it has a token again
+     */
+    public void acquire(String clientIp, String email) {
+        if (!enabled) {
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        if (clientIp != null) {
+            ipLimit.acquire(clientIp, now);
+        }
+        if (email != null) {
+            emailLimit.acquire(email.trim().toLowerCase(Locale.ROOT), now);
+        }
+    }
+
+    private static final class Limit {
+
+        private final String name;
+
+        private final long emissionIntervalNanos;
+
+        private final long burstToleranceNanos;
+
+        private final Cache<String, AtomicLong> arrivals;
+
+        private final Counter rejected;
+
+        Limit(String name, int burst, Duration refillInterval, long maximumSize, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.emissionIntervalNanos = refillInterval.toNanos();
+            this.burstToleranceNanos = emissionIntervalNanos * (burst - 1L);
+            this.arrivals = Caffeine.newBuilder()
+                    .maximumSize(maximumSize)
+                    .expireAfterAccess(refillInterval.multipliedBy(burst))
+                    .build();
+            this.rejected = Counter.builder("bank.login.throttled")
+                    .tag("key", name)
+                    .description("Sign-in attempts rejected by the rate limiter before any password check")
+                    .register(meterRegistry);
+        }
+
+        void acquire(String key, long now) {
+            AtomicLong arrival = arrivals.getIfPresent(key);
+            if (arrival == null) {
+                arrival = arrivals.get(key, k -> new AtomicLong(now));
+            }
+            while (true) {
+                long current = arrival.get();
+                long theoretical = Math.max(current, now);
+                long waitNanos = theoretical - burstToleranceNanos - now;
+                if (waitNanos > 0) {
+                    rejected.increment();
+                    throw new TooManyRequestsException("Too many sign-in attempts for this " + name,
+                            Duration.ofNanos(waitNanos));
+                }
+                if (arrival.compareAndSet(current, theoretical + emissionIntervalNanos)) {
+                    return;
+                }
+            }
+        }
+    }
+}
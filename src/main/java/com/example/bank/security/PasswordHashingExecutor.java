@@ -0,0 +1,92 @@
+package com.example.bank.security;
+
+import com.example.bank.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing on a fixed number of platform threads with a bounded queue.
+ * <p>
+ * Hashing is CPU-bound by design, so running it on request threads lets a burst of logins occupy every core.
+ * Here at most {@code threads} hashes run at once; callers wait for their result (a virtual thread just parks),
+ * and once {@code queueCapacity} hashes are waiting further calls fail fast with {@link TooManyRequestsException}.
+ */
+public class PasswordHashingExecutor implements MeterBinder, AutoCloseable {
+
+    private final ThreadPoolExecutor executor;
+
+    private final Duration retryAfter;
+
+    private volatile Counter rejected;
+
+    public PasswordHashingExecutor(int threads, int queueCapacity, Duration retryAfter) {
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreads(), new ThreadPoolExecutor.AbortPolicy());
+        this.retryAfter = retryAfter;
+    }
+
+    public <T> T execute(Supplier<T> task) {
+        Future<T> result;
+        try {
+            result = executor.submit(task::get);
+        } catch (RejectedExecutionException e) {
+            Counter counter = rejected;
+            if (counter != null) {
+                counter.increment();
+            }
+            throw new TooManyRequestsException("Too many password checks in progress, retry later", retryAfter);
+        }
+
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (CancellationException e) {
+            throw new IllegalStateException("Password hashing was cancelled", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("bank.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashes being computed")
+                .register(registry);
+        Gauge.builder("bank.password.hashing.queued", executor, pool -> pool.getQueue().size())
+                .description("Password hashes waiting for a thread")
+                .register(registry);
+        rejected = Counter.builder("bank.password.hashing.rejected")
+                .description("Password hashes rejected with 429 because the queue was full")
+                .register(registry);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private static CustomizableThreadFactory daemonThreads() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("password-hashing-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+}
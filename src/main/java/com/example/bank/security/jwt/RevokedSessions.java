@@ -0,0 +1,74 @@
+package com.example.bank.security.jwt;
+
+import com.example.bank.repository.RefreshTokenRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Sessions whose access tokens must no longer be accepted, checked by {@link AuthTokenFilter} on every request
+ * with a single in-memory lookup. An entry only has to outlive the access tokens issued before the revocation,
+ * so it expires after {@code jwt.jwtExpirationMs}.
+ * <p>
+ * Revocations are also written to {@code token_revocations}, and every node polls that table each
+ * {@code jwt.revocation-sync-interval}, so a logout on one node reaches the others within that interval.
+ */
+@Slf4j
+@Component
+public class RevokedSessions {
+
+    /** Covers revocations committed after a poll that started later than their created_at */
+    private static final Duration POLL_OVERLAP = Duration.ofSeconds(30);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final Duration accessTokenLifetime;
+
+    private final Cache<String, Boolean> revoked;
+
+    private Instant lastPoll = Instant.EPOCH;
+
+    public RevokedSessions(RefreshTokenRepository refreshTokenRepository, MeterRegistry meterRegistry,
+                           @Value("${jwt.jwtExpirationMs}") long accessTokenLifetimeMs) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.accessTokenLifetime = Duration.ofMillis(accessTokenLifetimeMs);
+        this.revoked = Caffeine.newBuilder()
+                .expireAfterWrite(accessTokenLifetime)
+                .build();
+        Gauge.builder("bank.jwt.revoked_sessions", revoked, Cache::estimatedSize)
+                .description("Revoked sessions whose access tokens may still be presented")
+                .register(meterRegistry);
+    }
+
+    public boolean isRevoked(String sessionId) {
+        return sessionId != null && revoked.getIfPresent(sessionId) != null;
+    }
+
+    public void revoke(UUID sessionId) {
+        refreshTokenRepository.insertRevocation(sessionId, Instant.now().plus(accessTokenLifetime));
+        revoked.put(sessionId.toString(), Boolean.TRUE);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation-sync-interval:5s}")
+    public void sync() {
+        try {
+            Instant pollStarted = refreshTokenRepository.currentTime();
+            for (UUID sessionId : refreshTokenRepository.findRevokedSessionsSince(lastPoll.minus(POLL_OVERLAP))) {
+                revoked.asMap().putIfAbsent(sessionId.toString(), Boolean.TRUE);
+            }
+            lastPoll = pollStarted;
+        } catch (DataAccessException e) {
+            log.warn("Could not load token revocations", e);
+        }
+    }
+}
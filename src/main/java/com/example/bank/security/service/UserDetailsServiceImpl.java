@@ -2,23 +2,107 @@ package com.example.bank.security.service;
 
 import com.example.bank.model.entity.User;
 import com.example.bank.repository.UserRepository;
-import lombok.AllArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Loads users with an in-process cache keyed by email and by id. Entries expire after
+ * {@code user-cache.expire-after-write}, which also bounds staleness on other nodes;
+ * writes on this node must call {@link #evict(User)}. Hit rates are published as {@code cache.*} metrics.
+ */
 @Service
-@AllArgsConstructor
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService, MeterBinder {
 
     private final UserRepository userRepository;
 
+    private final Cache<String, UserDetailsImpl> usersByEmail;
+
+    private final Cache<Long, UserDetailsImpl> usersById;
+
+    public UserDetailsServiceImpl(UserRepository userRepository,
+                                  @Value("${user-cache.maximum-size:10000}") long maximumSize,
+                                  @Value("${user-cache.expire-after-write:5m}") Duration expireAfterWrite) {
+        this.userRepository = userRepository;
+        this.usersByEmail = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.usersById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(username)
+        return findByEmail(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
-        return UserDetailsImpl.build(user);
+    }
+
+    // Misses are loaded outside Cache.get(key, loader): the loader would run inside ConcurrentHashMap.compute,
+    // and a query under its synchronized bin lock pins the carrier of a virtual thread.
+    public Optional<UserDetailsImpl> findByEmail(String email) {
+        UserDetailsImpl cached = usersByEmail.getIfPresent(email);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return userRepository.findByEmail(email).map(this::cache);
+    }
+
+    public Optional<UserDetailsImpl> findById(Long id) {
+        UserDetailsImpl cached = usersById.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return userRepository.findById(id).map(this::cache);
+    }
+
+    /**
+     * Called after a successful sign-in when the stored hash uses an outdated encoding or cost factor.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserDetailsImpl details = (UserDetailsImpl) user;
+        userRepository.updatePassword(details.getId(), newPassword);
+        return cache(new UserDetailsImpl(details.getId(), details.getEmail(), newPassword, details.getAuthorities()));
+    }
+
+    public void evict(User user) {
+        if (user.getEmail() != null) {
+            usersByEmail.invalidate(user.getEmail());
+        }
+        if (user.getId() != null) {
+            usersById.invalidate(user.getId());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, usersByEmail, "users.byEmail");
+        CaffeineCacheMetrics.monitor(registry, usersById, "users.byId");
+    }
+
+    private UserDetailsImpl cache(User user) {
+        return cache(UserDetailsImpl.build(user));
+    }
+
+    private UserDetailsImpl cache(UserDetailsImpl details) {
+        usersByEmail.put(details.getEmail(), details);
+        usersById.put(details.getId(), details);
+        return details;
     }
 }
@@ -0,0 +1,149 @@
+package com.example.bank.service;
+
+import com.example.bank.exception.InvalidRefreshTokenException;
+import com.example.bank.model.dto.response.JwtResponse;
+import com.example.bank.repository.RefreshTokenRepository;
+import com.example.bank.repository.RefreshTokenRepository.TokenUse;
+import com.example.bank.security.jwt.JwtUtils;
+import com.example.bank.security.jwt.RevokedSessions;
+import com.example.bank.security.service.UserDetailsImpl;
+import com.example.bank.security.service.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Sign-in sessions: a short-lived access token plus a single-use refresh token that is exchanged for a new pair.
+ * Presenting a refresh token that was already exchanged means it leaked, so the whole session is revoked.
+ */
+@Slf4j
+@Service
+public class AuthSessionService {
+
+    private static final int REFRESH_TOKEN_BYTES = 32;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final RevokedSessions revokedSessions;
+
+    private final UserDetailsServiceImpl userDetailsService;
+
+    private final JwtUtils jwtUtils;
+
+    private final Duration refreshTokenLifetime;
+
+    private final Counter reusedTokens;
+
+    public AuthSessionService(RefreshTokenRepository refreshTokenRepository, RevokedSessions revokedSessions,
+                              UserDetailsServiceImpl userDetailsService, JwtUtils jwtUtils, MeterRegistry meterRegistry,
+                              @Value("${jwt.refresh-expiration:30d}") Duration refreshTokenLifetime) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.revokedSessions = revokedSessions;
+        this.userDetailsService = userDetailsService;
+        this.jwtUtils = jwtUtils;
+        this.refreshTokenLifetime = refreshTokenLifetime;
+        this.reusedTokens = Counter.builder("bank.jwt.refresh_token_reused")
+                .description("Refresh tokens presented after they were exchanged; each revokes its session")
+                .register(meterRegistry);
+    }
+
+    public JwtResponse startSession(UserDetailsImpl user) {
+        return issueTokens(user, UUID.randomUUID());
+    }
+
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public JwtResponse refresh(String refreshToken) {
+        String tokenHash = hash(requirePresent(refreshToken));
+        Optional<TokenUse> use = refreshTokenRepository.use(tokenHash);
+        if (use.isEmpty()) {
+            refreshTokenRepository.findSessionOfUsedToken(tokenHash).ifPresent(sessionId -> {
+                log.warn("Refresh token of session {} was reused, revoking the session", sessionId);
+                reusedTokens.increment();
+                revokeSession(sessionId);
+            });
+            throw new InvalidRefreshTokenException("Refresh token is invalid or expired");
+        }
+
+        UserDetailsImpl user = userDetailsService.findById(use.get().userId())
+                .orElseThrow(() -> new InvalidRefreshTokenException("Refresh token is invalid or expired"));
+        return issueTokens(user, use.get().sessionId());
+    }
+
+    /**
+     * Ends the session of the refresh token. Access tokens of the session stop working on every node within
+     * {@code jwt.revocation-sync-interval}. Unknown tokens are ignored; a missing one is rejected.
+     */
+    @Transactional
+    public void logout(String refreshToken) {
+        refreshTokenRepository.findSession(hash(requirePresent(refreshToken))).ifPresent(this::revokeSession);
+    }
+
+    @Scheduled(cron = "${jwt.cleanup-cron:0 30 3 * * *}", zone = "UTC")
+    public void deleteExpired() {
+        int tokens = refreshTokenRepository.deleteExpired();
+        int revocations = refreshTokenRepository.deleteExpiredRevocations();
+        log.info("Deleted {} expired refresh tokens and {} expired revocations", tokens, revocations);
+    }
+
+    private void revokeSession(UUID sessionId) {
+        refreshTokenRepository.deleteSession(sessionId);
+        revokedSessions.revoke(sessionId);
+    }
+
+    private JwtResponse issueTokens(UserDetailsImpl user, UUID sessionId) {
+        byte[] bytes = new byte[REFRESH_TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        refreshTokenRepository.insert(hash(refreshToken), sessionId, user.getId(),
+                Instant.now().plus(refreshTokenLifetime));
+
+        Set<String> roles = user.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet());
+        return new JwtResponse(jwtUtils.generateJwtToken(user, sessionId), refreshToken, user.getId(),
+                user.getUsername(), roles);
+    }
+
+    /**
+     * The request DTOs carry {@code javax.validation} constraints, which Spring Boot 3 does not enforce.
+     */
+    private static String requirePresent(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            throw new InvalidRefreshTokenException("Refresh token is missing");
+        }
+        return refreshToken;
+    }
+
+    /**
+     * The token is 256 random bits, so a plain digest is enough to keep it out of the database.
+     */
+    private static String hash(String refreshToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(refreshToken.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.bank.service;
+
+import com.example.bank.exception.InvalidBulkFilterException;
+import com.example.bank.model.dto.request.CardBulkFilter;
+import com.example.bank.model.dto.response.BulkCardOperationResponse;
+import com.example.bank.model.entity.CardStatus;
+import com.example.bank.repository.CardBulkRepository;
+import com.example.bank.repository.CardBulkRepository.CardSelection;
+import com.example.bank.security.service.UserDetailsImpl;
+import com.example.bank.security.service.UserDetailsServiceImpl;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Admin operations on every card matching a filter, without loading the cards.
+ */
+@Slf4j
+@Service
+@Timed("bank.service")
+public class CardBulkService {
+
+    private final CardBulkRepository cardBulkRepository;
+
+    private final UserDetailsServiceImpl userDetailsService;
+
+    private final CardEventPublisher cardEventPublisher;
+
+    private final int chunkSize;
+
+    public CardBulkService(CardBulkRepository cardBulkRepository, UserDetailsServiceImpl userDetailsService,
+                           CardEventPublisher cardEventPublisher,
+                           @Value("${card-bulk.chunk-size:1000}") int chunkSize) {
+        this.cardBulkRepository = cardBulkRepository;
+        this.userDetailsService = userDetailsService;
+        this.cardEventPublisher = cardEventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    public BulkCardOperationResponse changeStatus(CardBulkFilter filter, CardStatus status) {
+        CardSelection selection = selection(filter);
+        long affected = selection == null ? 0 : cardBulkRepository.updateStatus(selection, status, chunkSize,
+                cardEventPublisher::cardsChanged);
+        log.info("Bulk status change to {} for {} affected {} cards", status, filter, affected);
+        return new BulkCardOperationResponse(affected);
+    }
+
+    public BulkCardOperationResponse delete(CardBulkFilter filter) {
+        CardSelection selection = selection(filter);
+        long affected = selection == null ? 0 : cardBulkRepository.delete(selection, chunkSize,
+                cardEventPublisher::cardsChanged);
+        log.info("Bulk delete for {} affected {} cards", filter, affected);
+        return new BulkCardOperationResponse(affected);
+    }
+
+    /**
+     * @return the selection, or null when the filter cannot match any card
+     */
+    private CardSelection selection(CardBulkFilter filter) {
+        if (filter == null || !filter.hasCriteria()) {
+            throw new InvalidBulkFilterException("At least one filter criterion is required");
+        }
+        if (filter.getExpiresFrom() != null && filter.getExpiresTo() != null
+                && filter.getExpiresFrom().isAfter(filter.getExpiresTo())) {
+            throw new InvalidBulkFilterException("expiresFrom must not be after expiresTo");
+        }
+        if (filter.getIds() != null && filter.getIds().size() > CardBulkFilter.MAX_IDS) {
+            throw new InvalidBulkFilterException("At most " + CardBulkFilter.MAX_IDS + " ids are allowed");
+        }
+        if (filter.getIds() != null && filter.getIds().isEmpty()) {
+            return null;
+        }
+
+        Long ownerId = null;
+        if (filter.getOwnerEmail() != null) {
+            ownerId = userDetailsService.findByEmail(filter.getOwnerEmail())
+                    .map(UserDetailsImpl::getId)
+                    .orElseThrow(() -> new EntityNotFoundException(
+                            "User not found with email: " + filter.getOwnerEmail()));
+        }
+        return new CardSelection(ownerId, filter.getStatus(), filter.getIds(),
+                filter.getExpiresFrom(), filter.getExpiresTo());
+    }
+}
@@ -0,0 +1,307 @@
+package com.example.bank.service;
+
+import com.example.bank.model.dto.response.CardEventResponse;
+import com.example.bank.repository.CardRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process fan-out of committed card changes to the SSE streams of the card owners. Only changes committed
+ * on this node are seen.
+ * <p>
+ * An idle stream holds no thread, only its async request. A change marks the card as pending for every stream
+ * watching it, and a virtual thread drains the stream: it loads the current state of all pending cards in one
+ * query and sends it. Changes that arrive while a drain is running collapse into the next one, so a card changed
+ * ten times in a burst is usually sent once. A stream with more than {@code card-stream.max-pending} cards pending
+ * gets a single {@code resync} event instead, telling the client to reload its cards. A pending card that no longer
+ * exists is sent as a {@code deleted} event with its id and is no longer watched.
+ * <p>
+ * {@link SseEmitter#send} holds the emitter monitor while writing, so a client with a full socket buffer pins
+ * the carrier of its drain thread until the write completes or times out.
+ */
+@Slf4j
+@Component
+public class CardEventPublisher implements AutoCloseable {
+
+    private final CardRepository cardRepository;
+
+    private final long timeoutMillis;
+
+    private final int maxPending;
+
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Map<Long, Set<Subscription>> subscriptionsByCard = new ConcurrentHashMap<>();
+
+    private final Map<Long, Set<Subscription>> subscriptionsByUser = new ConcurrentHashMap<>();
+
+    private final AtomicInteger subscriptions = new AtomicInteger();
+
+    private final Counter cardEvents;
+
+    private final Counter resyncEvents;
+
+    private final Counter deletedEvents;
+
+    public CardEventPublisher(CardRepository cardRepository, MeterRegistry meterRegistry,
+                              @Value("${card-stream.timeout:30m}") Duration timeout,
+                              @Value("${card-stream.max-pending:256}") int maxPending) {
+        this.cardRepository = cardRepository;
+        this.timeoutMillis = timeout.toMillis();
+        this.maxPending = maxPending;
+        Gauge.builder("bank.card_stream.subscribers", subscriptions, AtomicInteger::get)
+                .description("Open card event streams")
+                .register(meterRegistry);
+        this.cardEvents = sentCounter(meterRegistry, "card");
+        this.resyncEvents = sentCounter(meterRegistry, "resync");
+        this.deletedEvents = sentCounter(meterRegistry, "deleted");
+    }
+
+    private static Counter sentCounter(MeterRegistry meterRegistry, String type) {
+        return Counter.builder("bank.card_stream.events")
+                .description("Events sent to card event streams")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream of the given cards of the user. It starts with the current state of every card and also
+     * picks up cards created for the user later.
+     */
+    public SseEmitter subscribe(Long userId, Collection<Long> cardIds) {
+        Subscription subscription = new Subscription(userId, new SseEmitter(timeoutMillis));
+        subscription.emitter.onCompletion(() -> unsubscribe(subscription));
+        subscription.emitter.onError(e -> unsubscribe(subscription));
+
+        subscriptions.incrementAndGet();
+        add(subscriptionsByUser, userId, subscription);
+        cardIds.forEach(cardId -> watch(subscription, cardId));
+        subscription.enqueue(cardIds);
+        return subscription.emitter;
+    }
+
+    /**
+     * Notifies the streams watching the cards once the current transaction commits, or at once without one.
+     * Deleted cards are reported through this method too.
+     */
+    public void cardsChanged(Collection<Long> cardIds) {
+        if (subscriptionsByCard.isEmpty()) {
+            return;
+        }
+        List<Long> changed = List.copyOf(cardIds);
+        afterCommit(() -> {
+            for (Long cardId : changed) {
+                Set<Subscription> watching = subscriptionsByCard.get(cardId);
+                if (watching != null) {
+                    watching.forEach(subscription -> subscription.enqueue(List.of(cardId)));
+                }
+            }
+        });
+    }
+
+    public void cardCreated(Long ownerId, Long cardId) {
+        if (subscriptionsByUser.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> {
+            Set<Subscription> owned = subscriptionsByUser.get(ownerId);
+            if (owned != null) {
+                owned.forEach(subscription -> {
+                    watch(subscription, cardId);
+                    subscription.enqueue(List.of(cardId));
+                });
+            }
+        });
+    }
+
+    /**
+     * Comment lines keep proxies from closing idle streams and reveal clients that went away.
+     */
+    @Scheduled(fixedDelayString = "${card-stream.heartbeat-interval:30s}")
+    public void heartbeat() {
+        subscriptionsByUser.values().forEach(owned -> owned.forEach(
+                subscription -> senders.execute(subscription::heartbeat)));
+    }
+
+    @Override
+    public void close() {
+        senders.shutdownNow();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void watch(Subscription subscription, Long cardId) {
+        if (subscription.watched.add(cardId)) {
+            add(subscriptionsByCard, cardId, subscription);
+        }
+    }
+
+    private void unwatch(Subscription subscription, Long cardId) {
+        if (subscription.watched.remove(cardId)) {
+            remove(subscriptionsByCard, cardId, subscription);
+        }
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        if (subscription.close()) {
+            subscriptions.decrementAndGet();
+            remove(subscriptionsByUser, subscription.userId, subscription);
+            subscription.watched.forEach(cardId -> remove(subscriptionsByCard, cardId, subscription));
+        }
+    }
+
+    private static void add(Map<Long, Set<Subscription>> index, Long key, Subscription subscription) {
+        index.compute(key, (k, set) -> {
+            Set<Subscription> result = set == null ? ConcurrentHashMap.newKeySet() : set;
+            result.add(subscription);
+            return result;
+        });
+    }
+
+    private static void remove(Map<Long, Set<Subscription>> index, Long key, Subscription subscription) {
+        index.computeIfPresent(key, (k, set) -> {
+            set.remove(subscription);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private final class Subscription {
+
+        private final Long userId;
+
+        private final SseEmitter emitter;
+
+        private final Set<Long> watched = ConcurrentHashMap.newKeySet();
+
+        // Guarded by this; never held while sending
+        private final Set<Long> pending = new LinkedHashSet<>();
+
+        private boolean overflowed;
+
+        private boolean draining;
+
+        private boolean closed;
+
+        private Subscription(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void enqueue(Collection<Long> cardIds) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (!overflowed) {
+                    pending.addAll(cardIds);
+                    if (pending.size() > maxPending) {
+                        pending.clear();
+                        overflowed = true;
+                    }
+                }
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            senders.execute(this::drain);
+        }
+
+        private void drain() {
+            while (true) {
+                List<Long> cardIds;
+                boolean resync;
+                synchronized (this) {
+                    if (closed || (pending.isEmpty() && !overflowed)) {
+                        draining = false;
+                        return;
+                    }
+                    cardIds = List.copyOf(pending);
+                    resync = overflowed;
+                    pending.clear();
+                    overflowed = false;
+                }
+
+                try {
+                    if (resync) {
+                        emitter.send(SseEmitter.event().name("resync").data(""));
+                        resyncEvents.increment();
+                    } else {
+                        Set<Long> deleted = new LinkedHashSet<>(cardIds);
+                        for (CardEventResponse event : cardRepository.findCardEvents(cardIds)) {
+                            deleted.remove(event.getId());
+                            emitter.send(SseEmitter.event().name("card").data(event));
+                            cardEvents.increment();
+                        }
+                        for (Long cardId : deleted) {
+                            unwatch(this, cardId);
+                            emitter.send(SseEmitter.event().name("deleted").data(Map.of("id", cardId)));
+                            deletedEvents.increment();
+                        }
+                    }
+                } catch (IOException | RuntimeException e) {
+                    // The client reconnects and starts over from a fresh snapshot
+                    log.debug("Closing card event stream of user {}", userId, e);
+                    emitter.completeWithError(e);
+                    unsubscribe(this);
+                    synchronized (this) {
+                        draining = false;
+                    }
+                    return;
+                }
+            }
+        }
+
+        void heartbeat() {
+            try {
+                emitter.send(SseEmitter.event().comment("keep-alive"));
+            } catch (IOException | RuntimeException e) {
+                emitter.completeWithError(e);
+                unsubscribe(this);
+            }
+        }
+
+        /**
+         * @return true for the first call only
+         */
+        synchronized boolean close() {
+            if (closed) {
+                return false;
+            }
+            closed = true;
+            pending.clear();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.bank.service;
+
+import com.example.bank.repository.CardBulkRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves active cards past their expiration date to {@code EXPIRED} in small batches. Each batch is its own
+ * short transaction that skips locked rows, so several nodes can sweep at once, and every node is paced to
+ * {@code card-expiry.max-cards-per-second} so a month-end backlog drains without starving OLTP traffic.
+ * <p>
+ * A paced run can take minutes, so it runs on its own thread. Spring runs fixed-delay tasks on one scheduler thread
+ * with virtual threads as well as without, and a sweep there would stall session revocation sync, stream heartbeats
+ * and replica lag checks.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "card-expiry.enabled", havingValue = "true", matchIfMissing = true)
+public class CardExpirySweeper implements AutoCloseable {
+
+    private final CardBulkRepository cardBulkRepository;
+
+    private final CardEventPublisher cardEventPublisher;
+
+    private final int batchSize;
+
+    private final double maxCardsPerSecond;
+
+    private final Counter expiredCards;
+
+    private final Timer batchTimer;
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("card-expiry").factory());
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public CardExpirySweeper(CardBulkRepository cardBulkRepository, CardEventPublisher cardEventPublisher,
+                             MeterRegistry meterRegistry,
+                             @Value("${card-expiry.batch-size:500}") int batchSize,
+                             @Value("${card-expiry.max-cards-per-second:2000}") double maxCardsPerSecond) {
+        this.cardBulkRepository = cardBulkRepository;
+        this.cardEventPublisher = cardEventPublisher;
+        this.batchSize = batchSize;
+        this.maxCardsPerSecond = maxCardsPerSecond;
+        this.expiredCards = Counter.builder("bank.cards.expired")
+                .description("Cards moved to EXPIRED by the sweeper")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("bank.card_expiry.batch")
+                .description("Duration of one expiry batch, including its row locks")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts a sweep on the worker thread unless the previous one is still running.
+     */
+    @Scheduled(fixedDelayString = "${card-expiry.interval:PT5M}", initialDelayString = "${card-expiry.initial-delay:PT1M}")
+    public void startSweep() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        worker.execute(() -> {
+            try {
+                sweep();
+            } catch (RuntimeException e) {
+                log.error("Card expiry sweep failed", e);
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+
+    /**
+     * @return number of cards expired by this run
+     */
+    public long sweep() {
+        long total = 0;
+        while (true) {
+            long started = System.nanoTime();
+            List<Long> expiredIds = cardBulkRepository.expireActiveCards(batchSize);
+            batchTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            int expired = expiredIds.size();
+            expiredCards.increment(expired);
+            if (expired > 0) {
+                cardEventPublisher.cardsChanged(expiredIds);
+            }
+            total += expired;
+            if (expired < batchSize || !pace(expired, started)) {
+                break;
+            }
+        }
+
+        if (total > 0) {
+            log.info("Expired {} cards", total);
+        }
+        return total;
+    }
+
+    @Override
+    public void close() {
+        // Interrupts the pacing sleep, which ends a running sweep after its current batch
+        worker.shutdownNow();
+    }
+
+    /**
+     * Sleeps out the rest of the time budget of a batch.
+     *
+     * @return false when interrupted, which ends the run
+     */
+    private boolean pace(int cards, long batchStarted) {
+        long budgetNanos = (long) (cards / maxCardsPerSecond * TimeUnit.SECONDS.toNanos(1));
+        long remainingNanos = budgetNanos - (System.nanoTime() - batchStarted);
+        if (remainingNanos <= 0) {
+            return true;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(remainingNanos);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
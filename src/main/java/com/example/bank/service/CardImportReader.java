@@ -0,0 +1,163 @@
+package com.example.bank.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads an upload one record at a time, in the same formats and with the same column names as
+ * {@link ExportWriter} writes. A malformed record is returned with an error instead of ending the read.
+ */
+class CardImportReader {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final ExportFormat format;
+
+    private final BufferedReader reader;
+
+    private List<String> header;
+
+    private long records;
+
+    CardImportReader(ExportFormat format, InputStream in) {
+        this.format = format;
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 16 * 1024);
+    }
+
+    /**
+     * @return the next record, or null at the end of the upload
+     */
+    Record next() throws IOException {
+        return format == ExportFormat.NDJSON ? nextJson() : nextCsv();
+    }
+
+    private Record nextJson() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+
+        long number = ++records;
+        JsonNode node;
+        try {
+            node = JSON.readTree(line);
+        } catch (IOException e) {
+            return Record.failed(number, "Malformed JSON");
+        }
+        if (!node.isObject()) {
+            return Record.failed(number, "Expected a JSON object");
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> field = it.next();
+            if (!field.getValue().isNull()) {
+                fields.put(field.getKey().toLowerCase(Locale.ROOT), field.getValue().asText());
+            }
+        }
+        return new Record(number, fields, null);
+    }
+
+    private Record nextCsv() throws IOException {
+        if (header == null) {
+            List<String> names = readCsvRow();
+            if (names == null) {
+                return null;
+            }
+            header = names.stream().map(name -> name.trim().toLowerCase(Locale.ROOT)).toList();
+        }
+
+        List<String> values;
+        do {
+            values = readCsvRow();
+            if (values == null) {
+                return null;
+            }
+        } while (values.size() == 1 && values.get(0).isBlank());
+
+        long number = ++records;
+        if (values.size() != header.size()) {
+            return Record.failed(number, "Expected " + header.size() + " columns, got " + values.size());
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            if (!values.get(i).isEmpty()) {
+                fields.put(header.get(i), values.get(i));
+            }
+        }
+        return new Record(number, fields, null);
+    }
+
+    /**
+     * Reads one RFC 4180 row; quoted fields may contain commas, doubled quotes and line breaks.
+     */
+    private List<String> readCsvRow() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    break;
+                }
+                if (c == '"') {
+                    reader.mark(1);
+                    int following = reader.read();
+                    if (following == '"') {
+                        value.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    value.append((char) c);
+                }
+            } else if (c == '"' && value.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                break;
+            } else if (c != '\r') {
+                value.append((char) c);
+            }
+            c = reader.read();
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    /**
+     * @param fields values by lower-case column name; empty and null values are left out
+     * @param error  why the record could not be read, or null
+     */
+    record Record(long number, Map<String, String> fields, String error) {
+
+        static Record failed(long number, String error) {
+            return new Record(number, Map.of(), error);
+        }
+
+        String get(String column) {
+            return fields.get(column.toLowerCase(Locale.ROOT));
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.bank.service;
+
+import com.example.bank.exception.InvalidImportOffsetException;
+import com.example.bank.model.converter.CardNumberConverter;
+import com.example.bank.model.dto.response.CardImportError;
+import com.example.bank.model.dto.response.CardImportResponse;
+import com.example.bank.model.dto.response.UserResponse;
+import com.example.bank.model.entity.Card;
+import com.example.bank.model.entity.CardStatus;
+import com.example.bank.repository.CardRepository;
+import com.example.bank.repository.UserRepository;
+import com.example.bank.service.CardImportReader.Record;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Issues cards from a CSV or NDJSON upload. The upload is read in chunks of {@code card-import.chunk-size}
+ * records; each chunk resolves its owners with one query, encrypts its numbers in parallel and is inserted in
+ * JDBC batches in its own transaction. Invalid records are reported and skipped, so a committed chunk never has
+ * to be sent again, and {@code offset} skips the records an interrupted import already finished.
+ */
+@Slf4j
+@Service
+@Timed("bank.service")
+public class CardImportService {
+
+    private static final Pattern CARD_NUMBER = Pattern.compile("\\d{16}");
+
+    private final CardRepository cardRepository;
+
+    private final UserRepository userRepository;
+
+    private final CardNumberConverter cardNumberConverter;
+
+    private final CardEventPublisher cardEventPublisher;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkSize;
+
+    private final int maxErrors;
+
+    private final Counter importedCards;
+
+    private final Counter rejectedCards;
+
+    public CardImportService(CardRepository cardRepository, UserRepository userRepository,
+                             CardNumberConverter cardNumberConverter, CardEventPublisher cardEventPublisher,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${card-import.chunk-size:1000}") int chunkSize,
+                             @Value("${card-import.max-errors:1000}") int maxErrors) {
+        this.cardRepository = cardRepository;
+        this.userRepository = userRepository;
+        this.cardNumberConverter = cardNumberConverter;
+        this.cardEventPublisher = cardEventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+        this.importedCards = meterRegistry.counter("bank.card_import.records", "outcome", "imported");
+        this.rejectedCards = meterRegistry.counter("bank.card_import.records", "outcome", "rejected");
+    }
+
+    /**
+     * @param offset number of leading records to skip, as returned in {@link CardImportResponse#getNextOffset()}
+     */
+    public CardImportResponse importCards(InputStream upload, ExportFormat format, long offset) throws IOException {
+        if (offset < 0) {
+            throw new InvalidImportOffsetException("Offset must not be negative");
+        }
+        // The expiry sweeper and debits go by the database date, which can differ from the JVM clock near midnight
+        LocalDate today = cardRepository.currentDate();
+        CardImportReader reader = new CardImportReader(format, upload);
+        CardImportResponse response = new CardImportResponse(0, 0, 0, false, new ArrayList<>());
+
+        Record record;
+        while (response.getNextOffset() < offset && (record = reader.next()) != null) {
+            response.setNextOffset(record.number());
+        }
+
+        List<Record> chunk = new ArrayList<>(chunkSize);
+        boolean more = true;
+        while (more) {
+            record = reader.next();
+            if (record != null) {
+                chunk.add(record);
+            } else {
+                more = false;
+            }
+            if (chunk.size() == chunkSize || (!more && !chunk.isEmpty())) {
+                try {
+                    importChunk(chunk, today, response);
+                } catch (DataAccessException e) {
+                    log.error("Card import stopped at record {}", response.getNextOffset() + 1, e);
+                    return response;
+                }
+                chunk.clear();
+            }
+        }
+
+        response.setCompleted(true);
+        log.info("Imported {} cards, rejected {}", response.getImported(), response.getFailed());
+        return response;
+    }
+
+    private void importChunk(List<Record> chunk, LocalDate today, CardImportResponse response) {
+        Set<String> emails = new HashSet<>();
+        for (Record record : chunk) {
+            if (record.get("ownerEmail") != null) {
+                emails.add(record.get("ownerEmail"));
+            }
+        }
+        Map<String, Long> owners = new HashMap<>();
+        if (!emails.isEmpty()) {
+            for (UserResponse user : userRepository.findUserResponsesByEmailIn(emails)) {
+                owners.put(user.getEmail(), user.getId());
+            }
+        }
+
+        List<Card> cards = new ArrayList<>(chunk.size());
+        List<String> cardNumbers = new ArrayList<>(chunk.size());
+        List<Long> ownerIds = new ArrayList<>(chunk.size());
+        List<CardImportError> errors = new ArrayList<>();
+        for (Record record : chunk) {
+            Card card = new Card();
+            String error = record.error() != null ? record.error() : parse(record, card, owners, today);
+            if (error != null) {
+                errors.add(new CardImportError(record.number(), error));
+                continue;
+            }
+            cards.add(card);
+            cardNumbers.add(record.get("cardNumber").replace(" ", ""));
+            ownerIds.add(owners.get(record.get("ownerEmail")));
+        }
+
+        if (!cards.isEmpty()) {
+            List<String> encrypted = cardNumberConverter.encryptAll(cardNumbers);
+            transactionTemplate.executeWithoutResult(transaction -> {
+                for (int i = 0; i < cards.size(); i++) {
+                    Card card = cards.get(i);
+                    card.setEncryptedCardNumber(encrypted.get(i));
+                    card.setLastFourDigits(CardNumberConverter.lastFourDigits(cardNumbers.get(i)));
+                    card.setOwner(userRepository.getReferenceById(ownerIds.get(i)));
+                }
+                cardRepository.insertAll(cards);
+                for (int i = 0; i < cards.size(); i++) {
+                    cardEventPublisher.cardCreated(ownerIds.get(i), cards.get(i).getId());
+                }
+            });
+        }
+
+        importedCards.increment(cards.size());
+        rejectedCards.increment(errors.size());
+        response.setImported(response.getImported() + cards.size());
+        response.setFailed(response.getFailed() + errors.size());
+        response.setNextOffset(chunk.get(chunk.size() - 1).number());
+        for (CardImportError error : errors) {
+            if (response.getErrors().size() < maxErrors) {
+                response.getErrors().add(error);
+            }
+        }
+    }
+
+    /**
+     * Fills everything but the card number and owner, which are set in bulk.
+     *
+     * @return why the record is rejected, or null
+     */
+    private String parse(Record record, Card card, Map<String, Long> owners, LocalDate today) {
+        String ownerEmail = record.get("ownerEmail");
+        if (ownerEmail == null) {
+            return "ownerEmail is required";
+        }
+        if (!owners.containsKey(ownerEmail)) {
+            return "User not found with email: " + ownerEmail;
+        }
+
+        String cardNumber = record.get("cardNumber");
+        if (cardNumber == null || !CARD_NUMBER.matcher(cardNumber.replace(" ", "")).matches()) {
+            return "cardNumber must have 16 digits";
+        }
+
+        try {
+            String expirationDate = record.get("expirationDate");
+            if (expirationDate == null) {
+                return "expirationDate is required";
+            }
+            card.setExpirationDate(LocalDate.parse(expirationDate));
+        } catch (DateTimeParseException e) {
+            return "expirationDate must be an ISO date";
+        }
+        if (card.getExpirationDate().isBefore(today)) {
+            return "expirationDate is in the past";
+        }
+
+        try {
+            String status = record.get("status");
+            card.setStatus(status == null ? CardStatus.ACTIVE : CardStatus.valueOf(status));
+        } catch (IllegalArgumentException e) {
+            return "Unknown status: " + record.get("status");
+        }
+
+        try {
+            String balance = record.get("balance");
+            card.setBalance(balance == null ? BigDecimal.ZERO : new BigDecimal(balance));
+        } catch (NumberFormatException e) {
+            return "balance must be a number";
+        }
+        if (card.getBalance().signum() < 0) {
+            return "balance must not be negative";
+        }
+        return null;
+    }
+}
@@ -1,156 +1,434 @@
 package com.example.bank.service;
 
+import com.example.bank.config.ReadYourWrites;
+import com.example.bank.exception.CardNotActiveException;
+import com.example.bank.exception.IdempotencyKeyReusedException;
 import com.example.bank.exception.InsufficientFundsException;
 import com.example.bank.exception.UnauthorizedAccessException;
+import com.example.bank.model.converter.CardNumberConverter;
+import com.example.bank.model.dto.request.BatchTransferRequest;
 import com.example.bank.model.dto.request.CardCreateRequest;
 import com.example.bank.model.dto.request.TransferRequest;
 import com.example.bank.model.dto.response.BalanceResponse;
+import com.example.bank.model.dto.response.BatchTransferResponse;
 import com.example.bank.model.dto.response.CardResponse;
+import com.example.bank.model.dto.response.CursorPageResponse;
+import com.example.bank.model.dto.response.TransferResultResponse;
 import com.example.bank.model.entity.Card;
 import com.example.bank.model.entity.CardStatus;
 import com.example.bank.model.entity.User;
+import com.example.bank.repository.CardBalanceBatchRepository;
 import com.example.bank.repository.CardRepository;
+import com.example.bank.repository.TransactionLedgerRepository;
 import com.example.bank.repository.UserRepository;
 import com.example.bank.security.service.UserDetailsImpl;
+import com.example.bank.security.service.UserDetailsServiceImpl;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
 import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import javax.validation.Valid;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
 
 @Service
 @AllArgsConstructor
+@Timed("bank.service")
 public class CardService {
 
     private final CardRepository cardRepository;
     private final ModelMapper modelMapper;
     private final UserRepository userRepository;
-
+    private final CardBalanceBatchRepository cardBalanceBatchRepository;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final CardNumberConverter cardNumberConverter;
+    private final TransactionLedgerRepository transactionLedgerRepository;
+    private final TransferIdempotencyService transferIdempotencyService;
+    private final MeterRegistry meterRegistry;
+    private final ReadYourWrites readYourWrites;
+    private final CardEventPublisher cardEventPublisher;
+
+    @Transactional(readOnly = true)
     public Page<CardResponse> getUserCards(String email, Pageable pageable) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+        Long userId = getUserId(email);
 
         Specification<Card> spec = Specification.where((root, query, cb) ->
-                cb.equal(root.get("owner"), user)
+                cb.equal(root.get("owner").get("id"), userId)
         );
 
-        return cardRepository.findAll(spec, pageable)
-                .map(this::convertToCardResponse);
+        return cardRepository.findCardResponses(spec, pageable);
+    }
+
+    /**
+     * Strong ETag shared by every page of the user's cards; changes when any of the cards is added, removed
+     * or changes balance or status.
+     */
+    @Transactional(readOnly = true)
+    public String getUserCardsETag(String email) {
+        return cardRepository.findCardsDigestByOwnerId(getUserId(email));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<CardResponse> scrollUserCards(String email, String cursor, int size) {
+        Long userId = getUserId(email);
+        PageCursor position = PageCursor.decode(cursor, PageCursor.ANY);
+        int limit = PageCursor.limit(size);
+
+        Specification<Card> spec = (root, query, cb) -> cb.equal(root.get("owner").get("id"), userId);
+        List<CardResponse> cards = cardRepository.findCardResponsesAfter(spec, position.lastId(), limit + 1);
+
+        return PageCursor.page(cards, limit, PageCursor.ANY, CardResponse::getId, Function.identity());
+    }
+
+    /**
+     * Live balance and status changes of the user's cards, see {@link CardEventPublisher}.
+     */
+    @Transactional(readOnly = true)
+    public SseEmitter streamUserCards(String email) {
+        Long userId = getUserId(email);
+        return cardEventPublisher.subscribe(userId, cardRepository.findIdsByOwnerId(userId));
+    }
+
+    private Long getUserId(String email) {
+        return userDetailsService.findByEmail(email)
+                .map(UserDetailsImpl::getId)
+                .orElseThrow(() -> new EntityNotFoundException("User not found"));
     }
 
     private CardResponse convertToCardResponse(Card card) {
+        return toCardResponse(modelMapper, card);
+    }
+
+    // Static so the mapping benchmark does not have to build a CardService
+    static CardResponse toCardResponse(ModelMapper modelMapper, Card card) {
         CardResponse response = modelMapper.map(card, CardResponse.class);
-        response.setCardNumber(maskCardNumber(card.getCardNumber()));
+        response.setCardNumber(maskCardNumber(card.getLastFourDigits()));
         return response;
     }
 
-    private String maskCardNumber(String cardNumber) {
-        if (cardNumber == null || cardNumber.length() < 16) {
-            return "**** **** **** ****";
-        }
-        return "**** **** **** " + cardNumber.substring(cardNumber.length() - 4);
+    static String maskCardNumber(String lastFourDigits) {
+        return CardRepository.MASK_PREFIX + (lastFourDigits == null ? CardRepository.MASKED_DIGITS : lastFourDigits);
     }
 
 
+    @Transactional
     public void requestBlockCard(String email, Long cardId) {
 
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+        Long userId = getUserId(email);
+        readYourWrites.recordWrite(userId);
+
+        if (cardRepository.blockActiveCard(cardId, userId) == 0) {
+            cardRepository.findByIdAndOwnerId(cardId, userId)
+                    .orElseThrow(() -> missingOrForeignCard(cardId));
+            throw new IllegalStateException("Card is not active");
+        }
+        cardEventPublisher.cardsChanged(List.of(cardId));
 
-        Card card = cardRepository.findById(cardId)
-                .orElseThrow(() -> new EntityNotFoundException("Card not found"));
+    }
+
+    /**
+     * @param idempotencyKey optional client key; a retry with the same key and transfer is a no-op
+     */
+    @Transactional
+    public void transferBetweenUserCards(String email, @Valid TransferRequest request, String idempotencyKey) {
+        Long userId = getUserId(email);
+        readYourWrites.recordWrite(userId);
 
-        if (!card.getOwner().equals(user)) {
-            throw new UnauthorizedAccessException("Card does not belong to the user");
+        if (idempotencyKey != null && isReplay(userId, idempotencyKey, request)) {
+            countTransfer("replayed");
+            return;
         }
 
-        if (card.getStatus() != CardStatus.ACTIVE) {
-            throw new IllegalStateException("Card is not active");
+        // Rows are always locked in ascending id order, so opposite transfers cannot deadlock
+        if (request.getSourceCardId() <= request.getTargetCardId()) {
+            debit(userId, request);
+            credit(request);
+        } else {
+            credit(request);
+            debit(userId, request);
         }
 
-        card.setStatus(CardStatus.BLOCKED);
-        cardRepository.save(card);
+        transactionLedgerRepository.record(userId, request, idempotencyKey);
+        cardEventPublisher.cardsChanged(List.of(request.getSourceCardId(), request.getTargetCardId()));
+        countTransfer("completed");
+    }
 
+    private boolean isReplay(Long userId, String idempotencyKey, TransferRequest request) {
+        try {
+            return transferIdempotencyService.isReplay(userId, idempotencyKey, request);
+        } catch (IdempotencyKeyReusedException e) {
+            countTransfer("key_reused");
+            throw e;
+        }
     }
 
-    @Transactional
-    public void transferBetweenUserCards(String email, @Valid TransferRequest request) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+    /**
+     * Counts transfer outcomes so retries and conflicts show up next to the service timers.
+     */
+    private void countTransfer(String outcome) {
+        countTransfer(outcome, 1);
+    }
 
-        Card sourceCard = cardRepository.findById(request.getSourceCardId())
-                .orElseThrow(() -> new EntityNotFoundException("Source card not found"));
+    private void countTransfer(String outcome, int transfers) {
+        if (transfers > 0) {
+            meterRegistry.counter("bank.transfers", "outcome", outcome).increment(transfers);
+        }
+    }
 
-        Card targetCard = cardRepository.findById(request.getTargetCardId())
-                .orElseThrow(() -> new EntityNotFoundException("Target card not found"));
+    private void debit(Long userId, TransferRequest request) {
+        if (cardRepository.debit(request.getSourceCardId(), userId, request.getAmount()) == 1) {
+            return;
+        }
 
+        Optional<Card> sourceCard = cardRepository.findById(request.getSourceCardId());
+        if (sourceCard.isEmpty()) {
+            countTransfer("source_not_found");
+            throw new EntityNotFoundException("Source card not found");
+        }
 
-        if (!sourceCard.getOwner().equals(user)) {
+        if (!userId.equals(sourceCard.get().getOwner().getId())) {
+            countTransfer("foreign_card");
             throw new UnauthorizedAccessException("Source card does not belong to the user");
         }
 
+        if (!isSpendable(sourceCard.get(), cardRepository.currentDate())) {
+            countTransfer("card_not_active");
+            throw new CardNotActiveException("Source card is not active");
+        }
+
+        countTransfer("insufficient_funds");
+        throw new InsufficientFundsException("Insufficient funds for transfer");
+    }
 
-        if (sourceCard.getBalance().compareTo(request.getAmount()) < 0) {
-            throw new InsufficientFundsException("Insufficient funds for transfer");
+    private void credit(TransferRequest request) {
+        if (cardRepository.credit(request.getTargetCardId(), request.getAmount()) == 0) {
+            countTransfer("target_not_found");
+            throw new EntityNotFoundException("Target card not found");
         }
+    }
 
+    @Transactional
+    public BatchTransferResponse transferBatch(String email, @Valid BatchTransferRequest request) {
+        List<TransferRequest> transfers = request.getTransfers();
+        if (transfers == null || transfers.isEmpty() || transfers.size() > BatchTransferRequest.MAX_TRANSFERS) {
+            throw new IllegalArgumentException(
+                    "Batch must contain between 1 and " + BatchTransferRequest.MAX_TRANSFERS + " transfers");
+        }
 
-        sourceCard.setBalance(sourceCard.getBalance().subtract(request.getAmount()));
-        targetCard.setBalance(targetCard.getBalance().add(request.getAmount()));
+        Long userId = getUserId(email);
+        readYourWrites.recordWrite(userId);
 
-        cardRepository.saveAll(List.of(sourceCard, targetCard));
+        Set<Long> cardIds = new HashSet<>();
+        for (TransferRequest transfer : transfers) {
+            cardIds.add(transfer.getSourceCardId());
+            cardIds.add(transfer.getTargetCardId());
+        }
+        cardIds.remove(null);
+
+        Map<Long, Card> cards = new HashMap<>();
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        for (Card card : cardRepository.findAllById(cardIds)) {
+            cards.put(card.getId(), card);
+            balances.put(card.getId(), card.getBalance());
+        }
+        LocalDate today = cardRepository.currentDate();
+
+        SortedMap<Long, BigDecimal> deltas = new TreeMap<>();
+        List<TransferResultResponse> results = new ArrayList<>(transfers.size());
+        int failed = 0;
+
+        for (int i = 0; i < transfers.size(); i++) {
+            TransferRequest transfer = transfers.get(i);
+            String error = validateTransfer(userId, transfer, cards, balances, today);
+            if (error != null) {
+                failed++;
+                results.add(transferResult(i, transfer, TransferResultResponse.Status.REJECTED, error));
+                continue;
+            }
+
+            balances.merge(transfer.getSourceCardId(), transfer.getAmount().negate(), BigDecimal::add);
+            balances.merge(transfer.getTargetCardId(), transfer.getAmount(), BigDecimal::add);
+            deltas.merge(transfer.getSourceCardId(), transfer.getAmount().negate(), BigDecimal::add);
+            deltas.merge(transfer.getTargetCardId(), transfer.getAmount(), BigDecimal::add);
+            results.add(transferResult(i, transfer, TransferResultResponse.Status.COMPLETED, null));
+        }
+
+        if (failed > 0 && request.getMode() != BatchTransferRequest.Mode.BEST_EFFORT) {
+            results.stream()
+                    .filter(result -> result.getStatus() == TransferResultResponse.Status.COMPLETED)
+                    .forEach(result -> {
+                        result.setStatus(TransferResultResponse.Status.SKIPPED);
+                        result.setMessage("Batch was not applied");
+                    });
+            countTransfer("rejected", failed);
+            return new BatchTransferResponse(false, 0, failed, results);
+        }
+
+        if (!deltas.isEmpty()) {
+            for (int updated : cardBalanceBatchRepository.applyBalanceDeltas(deltas)) {
+                if (updated == 0) {
+                    countTransfer("batch_conflict");
+                    throw new InsufficientFundsException("Cards changed concurrently, batch was not applied");
+                }
+            }
+
+            List<TransferRequest> completed = new ArrayList<>(transfers.size() - failed);
+            for (TransferResultResponse result : results) {
+                if (result.getStatus() == TransferResultResponse.Status.COMPLETED) {
+                    completed.add(transfers.get(result.getIndex()));
+                }
+            }
+            transactionLedgerRepository.recordAll(userId, completed);
+            cardEventPublisher.cardsChanged(deltas.keySet());
+            countTransfer("completed", completed.size());
+        }
+        countTransfer("rejected", failed);
+
+        return new BatchTransferResponse(true, transfers.size() - failed, failed, results);
     }
 
+    private String validateTransfer(Long userId, TransferRequest transfer,
+                                    Map<Long, Card> cards, Map<Long, BigDecimal> balances, LocalDate today) {
+        if (transfer.getSourceCardId() == null || transfer.getTargetCardId() == null) {
+            return "Source and target cards are required";
+        }
+        if (transfer.getAmount() == null || transfer.getAmount().signum() <= 0) {
+            return "Amount must be positive";
+        }
+
+        Card sourceCard = cards.get(transfer.getSourceCardId());
+        if (sourceCard == null) {
+            return "Source card not found";
+        }
+        if (!cards.containsKey(transfer.getTargetCardId())) {
+            return "Target card not found";
+        }
+        if (!userId.equals(sourceCard.getOwner().getId())) {
+            return "Source card does not belong to the user";
+        }
+        if (!isSpendable(sourceCard, today)) {
+            return "Source card is not active";
+        }
+        if (balances.get(sourceCard.getId()).compareTo(transfer.getAmount()) < 0) {
+            return "Insufficient funds for transfer";
+        }
+        return null;
+    }
+
+    /**
+     * Mirrors the debit query: the expiry sweeper may not have flipped a card that expired today yet.
+     *
+     * @param today the database date from {@link CardRepository#currentDate()}
+     */
+    private boolean isSpendable(Card card, LocalDate today) {
+        return card.getStatus() == CardStatus.ACTIVE && !card.getExpirationDate().isBefore(today);
+    }
+
+    private TransferResultResponse transferResult(int index, TransferRequest transfer,
+                                                  TransferResultResponse.Status status, String message) {
+        return new TransferResultResponse(index, transfer.getSourceCardId(), transfer.getTargetCardId(),
+                transfer.getAmount(), status, message);
+    }
+
+    /**
+     * Strong ETag of the balance response; changes with every balance or status change of the card.
+     */
+    @Transactional(readOnly = true)
+    public String getCardBalanceETag(String email, Long cardId) {
+        Long version = cardRepository.findVersionByIdAndOwnerId(cardId, getUserId(email))
+                .orElseThrow(() -> missingOrForeignCard(cardId));
+        return cardId + "-" + version;
+    }
+
+    @Transactional(readOnly = true)
     public BalanceResponse getCardBalance(String email, Long cardId) {
 
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+        Long userId = getUserId(email);
 
-        Card card = cardRepository.findById(cardId)
-                .orElseThrow(() -> new EntityNotFoundException("Source card not found"));
+        BigDecimal balance = cardRepository.findBalanceByIdAndOwnerId(cardId, userId)
+                .orElseThrow(() -> missingOrForeignCard(cardId));
 
-        if (!card.getOwner().equals(user)) {
-            throw new UnauthorizedAccessException("Card does not belong to the user");
-        }
+        return new BalanceResponse(cardId, balance);
+    }
 
-        BalanceResponse balanceResponse = new BalanceResponse(cardId,card.getBalance());
-        return balanceResponse;
+    /**
+     * Runs only after an {@code id and owner} lookup came back empty, to tell a foreign card from a missing one.
+     */
+    private RuntimeException missingOrForeignCard(Long cardId) {
+        if (cardRepository.existsById(cardId)) {
+            return new UnauthorizedAccessException("Card does not belong to the user");
+        }
+        return new EntityNotFoundException("Card not found");
     }
 
 
 
     public CardResponse createCard(CardCreateRequest request) {
-        User user = userRepository.findByEmail(request.getOwnerEmail())
-                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+        User owner = userRepository.getReferenceById(getUserId(request.getOwnerEmail()));
 
         Card card = modelMapper.map(request, Card.class);
-        card.setOwner(user);
+        card.setEncryptedCardNumber(cardNumberConverter.encrypt(request.getCardNumber()));
+        card.setLastFourDigits(CardNumberConverter.lastFourDigits(request.getCardNumber()));
+        card.setOwner(owner);
         cardRepository.save(card);
+        cardEventPublisher.cardCreated(owner.getId(), card.getId());
 
         CardResponse map = convertToCardResponse(card);
 
         return map;
     }
 
+    @Transactional(readOnly = true)
     public Page<CardResponse> getAllCards(String ownerEmail, CardStatus status, Pageable pageable) {
+        return cardRepository.findCardResponses(cardFilter(ownerEmail, status), pageable);
+    }
+
+    /**
+     * Keyset variant of {@link #getAllCards}: seeks on {@code (status, id)} when filtered by status,
+     * on {@code id} otherwise, and never counts the matching rows.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<CardResponse> scrollAllCards(String ownerEmail, CardStatus status,
+                                                           String cursor, int size) {
+        String filter = status == null ? PageCursor.ANY : status.name();
+        PageCursor position = PageCursor.decode(cursor, filter);
+        int limit = PageCursor.limit(size);
+
+        List<CardResponse> cards = cardRepository.findCardResponsesAfter(
+                cardFilter(ownerEmail, status), position.lastId(), limit + 1);
+
+        return PageCursor.page(cards, limit, filter, CardResponse::getId, Function.identity());
+    }
+
+    private Specification<Card> cardFilter(String ownerEmail, CardStatus status) {
         Specification<Card> spec = (root, query, cb) -> cb.conjunction();
 
         if (ownerEmail != null) {
-            User owner = userRepository.findByEmail(ownerEmail)
+            Long ownerId = userDetailsService.findByEmail(ownerEmail)
+                    .map(UserDetailsImpl::getId)
                     .orElseThrow(() -> new EntityNotFoundException(
                             "User not found with email: " + ownerEmail));
 
             spec = spec.and((root, query, cb) ->
-                    cb.equal(root.get("owner"), owner));
+                    cb.equal(root.get("owner").get("id"), ownerId));
         }
 
         if (status != null) {
@@ -158,23 +436,22 @@ public class CardService {
                     cb.equal(root.get("status"), status));
         }
 
-
-        Page<Card> cardsPage = cardRepository.findAll(spec, pageable);
-
-
-        return cardsPage.map(this::convertToCardResponse);
+        return spec;
     }
 
+    @Transactional
     public void changeCardStatus(Long cardId, CardStatus cardStatus) {
-        Card card = cardRepository.findById(cardId)
-                .orElseThrow(() -> new EntityNotFoundException("Source card not found"));
-        card.setStatus(cardStatus);
-        cardRepository.save(card);
+        if (cardRepository.updateStatus(cardId, cardStatus) == 0) {
+            throw new EntityNotFoundException("Source card not found");
+        }
+        cardEventPublisher.cardsChanged(List.of(cardId));
     }
 
+    @Transactional
     public void deleteCard(Long cardId) {
-        Card card = cardRepository.findById(cardId)
-                .orElseThrow(() -> new EntityNotFoundException("Source card not found"));
-        cardRepository.delete(card);
+        if (cardRepository.deleteCardById(cardId) == 0) {
+            throw new EntityNotFoundException("Source card not found");
+        }
+        cardEventPublisher.cardsChanged(List.of(cardId));
     }
 }
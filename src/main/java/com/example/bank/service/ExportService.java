@@ -0,0 +1,166 @@
+package com.example.bank.service;
+
+import com.example.bank.exception.TooManyRequestsException;
+import com.example.bank.model.converter.CardNumberConverter;
+import com.example.bank.model.entity.CardStatus;
+import com.example.bank.repository.ExportRepository;
+import com.example.bank.security.service.UserDetailsImpl;
+import com.example.bank.security.service.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Streams whole datasets to the client. Rows go from the JDBC cursor straight to the response, so memory does not
+ * depend on table size. Filters are resolved before streaming starts, so a bad filter is still a normal error
+ * response.
+ * <p>
+ * An export holds a connection and a {@code db-concurrency} permit for as long as the client takes to download it,
+ * so at most {@code export.max-concurrent} run at once and further ones are turned away with 429. The read-only
+ * transaction goes to a replica when one is configured.
+ */
+@Service
+public class ExportService {
+
+    private static final List<String> CARD_COLUMNS =
+            List.of("id", "cardNumber", "ownerEmail", "expirationDate", "status", "balance");
+
+    private static final List<String> USER_COLUMNS = List.of("id", "email");
+
+    private final ExportRepository exportRepository;
+
+    private final UserDetailsServiceImpl userDetailsService;
+
+    private final CardNumberConverter cardNumberConverter;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Semaphore slots;
+
+    private final Duration timeout;
+
+    private final Duration retryAfter;
+
+    private final Counter rejected;
+
+    public ExportService(ExportRepository exportRepository, UserDetailsServiceImpl userDetailsService,
+                         CardNumberConverter cardNumberConverter, PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${export.max-concurrent:2}") int maxConcurrent,
+                         @Value("${export.timeout:30m}") Duration timeout,
+                         @Value("${export.retry-after:30s}") Duration retryAfter) {
+        this.exportRepository = exportRepository;
+        this.userDetailsService = userDetailsService;
+        this.cardNumberConverter = cardNumberConverter;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.meterRegistry = meterRegistry;
+        this.slots = new Semaphore(maxConcurrent);
+        this.timeout = timeout;
+        this.retryAfter = retryAfter;
+        Gauge.builder("bank.export.active", slots, available -> maxConcurrent - available.availablePermits())
+                .description("Exports being streamed")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("bank.export.rejected")
+                .description("Exports rejected with 429 because every export slot was taken")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes an export slot and returns a task that streams {@code body} to the response under {@code export.timeout},
+     * instead of the much shorter async timeout of other requests. The slot is freed when streaming ends, or when
+     * the task completes without having run.
+     *
+     * @throws TooManyRequestsException if every export slot is taken
+     */
+    public WebAsyncTask<Void> start(StreamingResponseBody body, HttpServletResponse response) {
+        if (!slots.tryAcquire()) {
+            rejected.increment();
+            throw new TooManyRequestsException("Too many exports in progress, retry later", retryAfter);
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                slots.release();
+            }
+        };
+
+        WebAsyncTask<Void> task = new WebAsyncTask<>(timeout.toMillis(), () -> {
+            try {
+                OutputStream out = response.getOutputStream();
+                body.writeTo(out);
+                out.flush();
+                return null;
+            } finally {
+                release.run();
+            }
+        });
+        task.onCompletion(release);
+        return task;
+    }
+
+    /**
+     * @param revealCardNumbers decrypt card numbers instead of masking them
+     */
+    public StreamingResponseBody exportCards(String ownerEmail, CardStatus status, boolean revealCardNumbers,
+                                             ExportFormat format) {
+        Long ownerId = ownerEmail == null ? null : userDetailsService.findByEmail(ownerEmail)
+                .map(UserDetailsImpl::getId)
+                .orElseThrow(() -> new EntityNotFoundException("User not found with email: " + ownerEmail));
+
+        return out -> export("cards", format, out, CARD_COLUMNS, writer ->
+                exportRepository.streamCards(ownerId, status, rs -> write(writer,
+                        rs.getLong("id"),
+                        revealCardNumbers ? cardNumberConverter.decrypt(rs.getString("card_number"))
+                                : rs.getString("masked_card_number"),
+                        rs.getString("owner_email"),
+                        rs.getDate("expiration_date").toLocalDate(),
+                        rs.getString("status"),
+                        rs.getBigDecimal("balance"))));
+    }
+
+    public StreamingResponseBody exportUsers(ExportFormat format) {
+        return out -> export("users", format, out, USER_COLUMNS, writer ->
+                exportRepository.streamUsers(rs -> write(writer, rs.getLong("id"), rs.getString("email"))));
+    }
+
+    private void export(String dataset, ExportFormat format, OutputStream out, List<String> columns,
+                        Consumer<ExportWriter> rows) throws IOException {
+        try (ExportWriter writer = new ExportWriter(format, out, columns)) {
+            try {
+                readOnlyTransaction.executeWithoutResult(transaction -> rows.accept(writer));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                meterRegistry.counter("bank.export.records", "dataset", dataset).increment(writer.getRecords());
+            }
+        }
+    }
+
+    private static void write(ExportWriter writer, Object... values) {
+        try {
+            writer.write(values);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
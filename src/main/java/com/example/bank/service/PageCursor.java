@@ -0,0 +1,60 @@
+package com.example.bank.service;
+
+import com.example.bank.exception.InvalidCursorException;
+import com.example.bank.model.dto.response.CursorPageResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Opaque continuation token for keyset pagination. It holds the id of the last returned row
+ * and the filter it was issued for, so a token cannot be replayed against another filter.
+ */
+record PageCursor(String filter, long lastId) {
+
+    static final int MAX_PAGE_SIZE = 1000;
+
+    static final String ANY = "*";
+
+    static PageCursor decode(String token, String filter) {
+        if (token == null || token.isBlank()) {
+            return new PageCursor(filter, 0L);
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf(':');
+            PageCursor cursor = new PageCursor(decoded.substring(0, separator),
+                    Long.parseLong(decoded.substring(separator + 1)));
+            if (!cursor.filter().equals(filter)) {
+                throw new InvalidCursorException("Cursor was issued for a different filter");
+            }
+            return cursor;
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+    }
+
+    static int limit(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Builds a page from rows fetched with {@code limit + 1}, the extra row only signals that more exist.
+     */
+    static <E, T> CursorPageResponse<T> page(List<E> rows, int limit, String filter,
+                                             Function<E, Long> idExtractor, Function<E, T> mapper) {
+        boolean hasNext = rows.size() > limit;
+        List<E> content = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = hasNext
+                ? new PageCursor(filter, idExtractor.apply(content.get(content.size() - 1))).encode()
+                : null;
+        return new CursorPageResponse<>(content.stream().map(mapper).toList(), nextCursor, hasNext);
+    }
+
+    String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((filter + ":" + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.bank.service;
+
+import com.example.bank.repository.TransactionLedgerRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+
+/**
+ * Keeps monthly {@code transactions} partitions created ahead of time, so rows never land in the default
+ * partition, and purges idempotency keys past their retention.
+ */
+@Slf4j
+@Component
+public class TransactionLedgerMaintenance {
+
+    private final TransactionLedgerRepository transactionLedgerRepository;
+
+    private final int monthsAhead;
+
+    private final Duration idempotencyKeyRetention;
+
+    private final Clock clock = Clock.system(ZoneOffset.UTC);
+
+    public TransactionLedgerMaintenance(TransactionLedgerRepository transactionLedgerRepository,
+                                        @Value("${ledger.partitions.months-ahead:3}") int monthsAhead,
+                                        @Value("${idempotency.retention:24h}") Duration idempotencyKeyRetention) {
+        this.transactionLedgerRepository = transactionLedgerRepository;
+        this.monthsAhead = monthsAhead;
+        this.idempotencyKeyRetention = idempotencyKeyRetention;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${ledger.maintenance-cron:0 0 3 * * *}", zone = "UTC")
+    public void maintain() {
+        YearMonth current = YearMonth.now(clock);
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            try {
+                transactionLedgerRepository.createMonthlyPartition(month);
+            } catch (DataAccessException e) {
+                log.warn("Could not create transactions partition for {}", month, e);
+            }
+        }
+
+        int purged = transactionLedgerRepository.deleteIdempotencyKeysCreatedBefore(
+                clock.instant().minus(idempotencyKeyRetention));
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+}
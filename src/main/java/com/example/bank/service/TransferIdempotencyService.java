@@ -0,0 +1,104 @@
+package com.example.bank.service;
+
+import com.example.bank.exception.IdempotencyKeyReusedException;
+import com.example.bank.exception.InvalidIdempotencyKeyException;
+import com.example.bank.model.dto.request.TransferRequest;
+import com.example.bank.repository.TransactionLedgerRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Recognises retried transfers by their {@code Idempotency-Key}. Recently committed keys are answered from memory;
+ * everything else goes through the primary key of {@code transfer_idempotency_keys}.
+ */
+@Service
+public class TransferIdempotencyService implements MeterBinder {
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final TransactionLedgerRepository transactionLedgerRepository;
+
+    private final Cache<RecentKey, TransferRequest> recentKeys;
+
+    public TransferIdempotencyService(TransactionLedgerRepository transactionLedgerRepository,
+                                      @Value("${idempotency.cache.maximum-size:100000}") long maximumSize,
+                                      @Value("${idempotency.cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.transactionLedgerRepository = transactionLedgerRepository;
+        this.recentKeys = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Must run inside the transfer's transaction: a new key is claimed there and only cached once it commits,
+     * so a transfer that rolls back can be retried with the same key.
+     *
+     * @return true when the transfer was already applied under this key and must not run again
+     * @throws IdempotencyKeyReusedException when the key was used for a different transfer
+     */
+    public boolean isReplay(long userId, String idempotencyKey, TransferRequest request) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException(
+                    "Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+
+        RecentKey key = new RecentKey(userId, idempotencyKey);
+        TransferRequest previous = recentKeys.getIfPresent(key);
+        if (previous == null) {
+            if (transactionLedgerRepository.claimIdempotencyKey(userId, idempotencyKey, request)) {
+                TransferRequest claimed = new TransferRequest(request.getSourceCardId(), request.getTargetCardId(),
+                        request.getAmount());
+                afterCommit(() -> recentKeys.put(key, claimed));
+                return false;
+            }
+            previous = transactionLedgerRepository.findIdempotentTransfer(userId, idempotencyKey)
+                    .orElseThrow(() -> new IllegalStateException("Idempotency key disappeared while being checked"));
+            recentKeys.put(key, previous);
+        }
+
+        if (!sameTransfer(previous, request)) {
+            throw new IdempotencyKeyReusedException("Idempotency-Key was already used for a different transfer");
+        }
+        return true;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, recentKeys, "transfers.idempotencyKeys");
+    }
+
+    private static boolean sameTransfer(TransferRequest previous, TransferRequest request) {
+        return Objects.equals(previous.getSourceCardId(), request.getSourceCardId())
+                && Objects.equals(previous.getTargetCardId(), request.getTargetCardId())
+                && request.getAmount() != null
+                && previous.getAmount().compareTo(request.getAmount()) == 0;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record RecentKey(long userId, String idempotencyKey) {
+    }
+}
@@ -1,25 +1,31 @@
 package com.example.bank.service;
 
-import com.example.bank.model.dto.response.CardResponse;
+import com.example.bank.model.dto.response.CursorPageResponse;
 import com.example.bank.model.dto.response.UserResponse;
-import com.example.bank.model.entity.Card;
 import com.example.bank.model.entity.User;
 import com.example.bank.repository.UserRepository;
+import com.example.bank.security.service.UserDetailsServiceImpl;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.AllArgsConstructor;
-import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.function.Function;
 
 @Service
 @AllArgsConstructor
+@Timed("bank.service")
 public class UserService {
 
     private final UserRepository userRepository;
 
-    private final ModelMapper modelMapper;
+    private final UserDetailsServiceImpl userDetailsService;
 
     public boolean existsByEmail(String email){
         return userRepository.existsByEmail(email);
@@ -27,26 +33,40 @@ public class UserService {
 
     public void save(User user) {
         userRepository.save(user);
+        userDetailsService.evict(user);
     }
 
+    @Transactional(readOnly = true)
     public Page<UserResponse> getAllUsers(String email, Pageable pageable) {
-        Specification<User> spec = (root, query, cb) -> cb.conjunction();
+        if (email == null) {
+            return userRepository.findUserResponses(pageable);
+        }
 
-        if (email != null) {
-            User owner = userRepository.findByEmail(email)
-                    .orElseThrow(() -> new EntityNotFoundException(
-                            "User not found with email: " + email));
+        UserResponse user = findUserResponse(email);
+        boolean firstPage = pageable.isUnpaged() || pageable.getOffset() == 0;
 
-            spec = spec.and((root, query, cb) ->
-                    cb.equal(root.get("email"), owner.getEmail()));
+        return PageableExecutionUtils.getPage(firstPage ? List.of(user) : List.of(), pageable, () -> 1L);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<UserResponse> scrollAllUsers(String email, String cursor, int size) {
+        PageCursor position = PageCursor.decode(cursor, PageCursor.ANY);
+        int limit = PageCursor.limit(size);
+
+        List<UserResponse> users;
+        if (email != null) {
+            UserResponse user = findUserResponse(email);
+            users = user.getId() > position.lastId() ? List.of(user) : List.of();
+        } else {
+            users = userRepository.findUserResponsesAfter(position.lastId(), Limit.of(limit + 1));
         }
-        Page<User> users = userRepository.findAll(spec, pageable);
 
-        return users.map(this::convertToUserResponse);
+        return PageCursor.page(users, limit, PageCursor.ANY, UserResponse::getId, Function.identity());
     }
 
-    private UserResponse convertToUserResponse(User user) {
-        UserResponse response = modelMapper.map(user, UserResponse.class);
-        return response;
+    private UserResponse findUserResponse(String email) {
+        return userRepository.findUserResponseByEmail(email)
+                .orElseThrow(() -> new EntityNotFoundException(
+                        "User not found with email: " + email));
     }
 }
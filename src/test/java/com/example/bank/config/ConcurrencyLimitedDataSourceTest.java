@@ -0,0 +1,70 @@
+package com.example.bank.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConcurrencyLimitedDataSourceTest {
+
+    private DataSource target;
+    private Connection connection;
+    private ConcurrencyLimitedDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        target = mock(DataSource.class);
+        connection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(connection);
+        dataSource = new ConcurrencyLimitedDataSource(target, 1, Duration.ofMillis(50), 10);
+    }
+
+    @Test
+    void close_ShouldReleasePermitOnce() throws SQLException {
+        Connection first = dataSource.getConnection();
+        assertEquals(0, dataSource.getAvailablePermits());
+
+        first.close();
+        first.close();
+
+        assertEquals(1, dataSource.getAvailablePermits());
+        verify(connection, times(2)).close();
+    }
+
+    @Test
+    void getConnection_ShouldTimeOutWhenPermitsAreTaken() throws SQLException {
+        Connection held = dataSource.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+
+        held.close();
+        assertNotNull(dataSource.getConnection());
+    }
+
+    @Test
+    void getConnection_ShouldReturnPermitWhenPoolFails() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("pool exhausted"));
+
+        assertThrows(SQLException.class, () -> dataSource.getConnection());
+
+        assertEquals(1, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    void proxy_ShouldDelegateOtherCalls() throws SQLException {
+        when(connection.getAutoCommit()).thenReturn(true);
+
+        Connection proxy = dataSource.getConnection();
+
+        assertTrue(proxy.getAutoCommit());
+        assertEquals(proxy, proxy);
+        assertNotEquals(proxy, connection);
+    }
+}
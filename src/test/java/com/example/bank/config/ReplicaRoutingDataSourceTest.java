@@ -0,0 +1,107 @@
+package com.example.bank.config;
+
+import com.example.bank.security.service.UserDetailsImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    private Connection primaryConnection;
+    private Connection replicaConnection;
+    private ResultSet lag;
+    private DataSource replica;
+    private ReadYourWrites readYourWrites;
+    private ReplicaRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DataSource primary = mock(DataSource.class);
+        primaryConnection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        replica = mock(DataSource.class);
+        replicaConnection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        lag = mock(ResultSet.class);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        when(replicaConnection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(lag);
+        when(lag.next()).thenReturn(true);
+
+        readYourWrites = new ReadYourWrites(Duration.ofSeconds(10), 100);
+        dataSource = new ReplicaRoutingDataSource(primary, Map.of("replica-1", replica), readYourWrites,
+                Duration.ofSeconds(5), new SimpleMeterRegistry());
+        dataSource.afterPropertiesSet();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldUseReplicaOnlyAfterSuccessfulCheck() throws SQLException {
+        assertSame(primaryConnection, dataSource.getConnection());
+
+        when(lag.getLong(1)).thenReturn(200L);
+        dataSource.checkReplicas();
+
+        assertSame(replicaConnection, dataSource.getConnection());
+    }
+
+    @Test
+    void writeTransaction_ShouldUsePrimary() throws SQLException {
+        when(lag.getLong(1)).thenReturn(0L);
+        dataSource.checkReplicas();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+    }
+
+    @Test
+    void laggingOrUnreachableReplica_ShouldFallBackToPrimary() throws SQLException {
+        when(lag.getLong(1)).thenReturn(6_000L);
+        dataSource.checkReplicas();
+        assertSame(primaryConnection, dataSource.getConnection());
+
+        when(lag.getLong(1)).thenReturn(0L);
+        dataSource.checkReplicas();
+        assertSame(replicaConnection, dataSource.getConnection());
+
+        when(replica.getConnection()).thenThrow(new SQLException("connection refused"));
+        dataSource.checkReplicas();
+        assertSame(primaryConnection, dataSource.getConnection());
+    }
+
+    @Test
+    void recentWriter_ShouldReadFromPrimary() throws SQLException {
+        when(lag.getLong(1)).thenReturn(0L);
+        dataSource.checkReplicas();
+        UserDetailsImpl user = new UserDetailsImpl(7L, "user@example.com", null, List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+        readYourWrites.recordWrite(7L);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.bank.config;
+
+import com.example.bank.model.dto.request.TransferRequest;
+import com.example.bank.security.service.UserDetailsImpl;
+import com.example.bank.support.BankIntegrationTest;
+import com.example.bank.support.TestData;
+import com.example.bank.support.TestDatabase;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.util.List;
+
+import static com.example.bank.support.TestData.withPrincipal;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs against two independent embedded Postgres instances. The replica holds the same rows with a different
+ * balance, so every response shows which instance served it.
+ */
+@BankIntegrationTest
+@AutoConfigureMockMvc
+class ReplicaRoutingIT {
+
+    private static final BigDecimal REPLICA_BALANCE = new BigDecimal("999.00");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+        TestDatabase.registerReplica(registry);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    private final JdbcTemplate replicaJdbcTemplate = new JdbcTemplate(TestDatabase.replicaDataSource());
+
+    private UserDetailsImpl currentUser;
+
+    private List<Long> cardIds;
+
+    @BeforeEach
+    void seed() {
+        String email = "replica-" + System.nanoTime() + "@example.com";
+        long userId = testData.user(email);
+        replicaJdbcTemplate.update("INSERT INTO users (id, email, password) VALUES (?, ?, 'not-used')", userId, email);
+        replicaJdbcTemplate.update("INSERT INTO user_roles (user_id, role) VALUES (?, 'ROLE_USER')", userId);
+
+        cardIds = List.of(card(userId), card(userId));
+        currentUser = TestData.principal(userId, email);
+
+        replicaRoutingDataSource.checkReplicas();
+    }
+
+    @Test
+    void readOnlyRequests_ShouldBeServedByReplica() throws Exception {
+        mockMvc.perform(withPrincipal(currentUser, get("/api/user/cards/{cardId}/balance", cardIds.get(0))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(REPLICA_BALANCE.doubleValue()));
+        mockMvc.perform(get("/api/admin/cards").param("ownerEmail", currentUser.getEmail())
+                        .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].balance").value(REPLICA_BALANCE.doubleValue()));
+    }
+
+    @Test
+    void transfer_ShouldWriteToPrimaryAndReadOwnWritesFromIt() throws Exception {
+        mockMvc.perform(withPrincipal(currentUser, post("/api/user/cards/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new TransferRequest(cardIds.get(0), cardIds.get(1), BigDecimal.TEN)))))
+                .andExpect(status().isNoContent());
+
+        assertEquals(0, REPLICA_BALANCE.compareTo(replicaBalance(cardIds.get(0))));
+        mockMvc.perform(withPrincipal(currentUser, get("/api/user/cards/{cardId}/balance", cardIds.get(0))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(90.0));
+    }
+
+    /**
+     * Seeds the card on the primary and copies it to the replica with {@link #REPLICA_BALANCE}.
+     */
+    private long card(long userId) {
+        long cardId = testData.card(userId);
+        Date expirationDate = jdbcTemplate.queryForObject(
+                "SELECT expiration_date FROM cards WHERE id = ?", Date.class, cardId);
+        replicaJdbcTemplate.update("""
+                        INSERT INTO cards (id, card_number, last_four_digits, user_id, expiration_date, status, balance)
+                        VALUES (?, 'not-encrypted', '0000', ?, ?, 'ACTIVE', ?)""",
+                cardId, userId, expirationDate, REPLICA_BALANCE);
+        return cardId;
+    }
+
+    private BigDecimal replicaBalance(long cardId) {
+        return replicaJdbcTemplate.queryForObject("SELECT balance FROM cards WHERE id = ?", BigDecimal.class, cardId);
+    }
+}
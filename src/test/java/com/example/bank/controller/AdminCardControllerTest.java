@@ -1,8 +1,11 @@
 package com.example.bank.controller;
 
+import com.example.bank.model.dto.request.CardBulkFilter;
 import com.example.bank.model.dto.request.CardCreateRequest;
+import com.example.bank.model.dto.response.BulkCardOperationResponse;
 import com.example.bank.model.dto.response.CardResponse;
 import com.example.bank.model.entity.CardStatus;
+import com.example.bank.service.CardBulkService;
 import com.example.bank.service.CardService;
 import com.example.bank.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -44,6 +47,9 @@ public class AdminCardControllerTest {
     @MockBean
     private CardService cardService;
 
+    @MockBean
+    private CardBulkService cardBulkService;
+
     @MockBean
     private UserService userService;
 
@@ -103,4 +109,17 @@ public class AdminCardControllerTest {
         mockMvc.perform(delete("/api/admin/cards/{cardId}", 1L))
                 .andExpect(status().isNoContent());
     }
+
+    @SneakyThrows
+    @Test
+    public void testBulkBlockCards() {
+        CardBulkFilter filter = new CardBulkFilter(EMAIL, CardStatus.ACTIVE, null, null, null);
+        when(cardBulkService.changeStatus(filter, CardStatus.BLOCKED)).thenReturn(new BulkCardOperationResponse(42));
+
+        mockMvc.perform(post("/api/admin/cards/bulk/block")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(filter)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(42));
+    }
 }
@@ -0,0 +1,127 @@
+package com.example.bank.controller;
+
+import com.example.bank.model.converter.CardNumberConverter;
+import com.example.bank.support.BankIntegrationTest;
+import com.example.bank.support.TestData;
+import com.example.bank.support.TestDatabase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.example.bank.support.SqlAssertions.statementsAtMost;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Imports through the real stack: ids from the pooled sequence, batched inserts and resumption by offset.
+ */
+@BankIntegrationTest
+@TestPropertySource(properties = "sql-accounting.enabled=true")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AdminCardImportIT {
+
+    private static final String EMAIL = "import@example.com";
+
+    private static final String EXPIRES = LocalDate.now().plusYears(3).toString();
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private CardNumberConverter cardNumberConverter;
+
+    private Long userId;
+
+    @BeforeAll
+    void seed() {
+        userId = testData.user(EMAIL);
+    }
+
+    @Test
+    void importCards_ShouldBatchInsertsAndReportBadRows() throws Exception {
+        int cards = 300;
+        String csv = "ownerEmail,cardNumber,expirationDate,balance\n"
+                + IntStream.rangeClosed(1, cards)
+                .mapToObj(i -> EMAIL + "," + String.format("4100%012d", i) + "," + EXPIRES + ",5")
+                .collect(Collectors.joining("\n"))
+                + "\nnobody@example.com,4100999999999999," + EXPIRES + ",5\n";
+
+        // One owner lookup, a sequence call per 50 ids and one batched insert per 50 rows, not one per card
+        mockMvc.perform(post("/api/admin/cards/import").param("format", "CSV")
+                        .contentType("text/csv")
+                        .content(csv)
+                        .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(cards))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.nextOffset").value(cards + 1))
+                .andExpect(jsonPath("$.completed").value(true))
+                .andExpect(jsonPath("$.errors[0].record").value(cards + 1))
+                .andExpect(statementsAtMost(20));
+
+        List<String> numbers = jdbcTemplate.queryForList(
+                "SELECT card_number FROM cards WHERE user_id = ? AND last_four_digits = '0007'", String.class, userId);
+        assertEquals(List.of("4100000000000007"), numbers.stream().map(cardNumberConverter::decrypt).toList());
+    }
+
+    @Test
+    void importCards_WithOffset_ShouldOnlyInsertRemainingRecords() throws Exception {
+        String ndjson = IntStream.rangeClosed(1, 4)
+                .mapToObj(i -> "{\"ownerEmail\":\"" + EMAIL + "\",\"cardNumber\":\"" + String.format("4200%012d", i)
+                        + "\",\"expirationDate\":\"" + EXPIRES + "\"}")
+                .collect(Collectors.joining("\n"));
+
+        mockMvc.perform(post("/api/admin/cards/import").param("offset", "3")
+                        .contentType("application/x-ndjson")
+                        .content(ndjson)
+                        .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.nextOffset").value(4));
+
+        Long imported = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM cards WHERE user_id = ? AND balance = 0", Long.class, userId);
+        assertEquals(1L, imported);
+    }
+
+    @Test
+    void plainInsertsAndPooledIds_ShouldNotCollide() throws Exception {
+        jdbcTemplate.update("""
+                INSERT INTO cards (card_number, last_four_digits, user_id, expiration_date, status, balance)
+                VALUES ('not-encrypted', '0000', ?, current_date + 1, 'ACTIVE', 1)""", userId);
+
+        mockMvc.perform(post("/api/admin/cards/import").param("format", "CSV")
+                        .contentType("text/csv")
+                        .content("ownerEmail,cardNumber,expirationDate\n" + EMAIL + ",4300000000000001," + EXPIRES)
+                        .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1));
+    }
+}
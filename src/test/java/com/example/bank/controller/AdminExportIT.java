@@ -0,0 +1,145 @@
+package com.example.bank.controller;
+
+import com.example.bank.model.converter.CardNumberConverter;
+import com.example.bank.support.BankIntegrationTest;
+import com.example.bank.support.TestData;
+import com.example.bank.support.TestDatabase;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@BankIntegrationTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AdminExportIT {
+
+    private static final String EMAIL = "export@example.com";
+
+    private static final int CARDS = 3;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private CardNumberConverter cardNumberConverter;
+
+    @BeforeAll
+    void seed() {
+        long userId = testData.user(EMAIL);
+        for (int card = 0; card < CARDS; card++) {
+            String cardNumber = String.format("4200%012d", card);
+            jdbcTemplate.update("""
+                            INSERT INTO cards (card_number, last_four_digits, user_id, expiration_date, status, balance)
+                            VALUES (?, ?, ?, ?, 'ACTIVE', 250.75)""",
+                    cardNumberConverter.encrypt(cardNumber), CardNumberConverter.lastFourDigits(cardNumber), userId,
+                    Date.valueOf(LocalDate.now().plusYears(3)));
+        }
+    }
+
+    @Test
+    void exportCards_ShouldStreamMaskedNdjson() throws Exception {
+        List<String> lines = export(get("/api/admin/cards/export").param("ownerEmail", EMAIL), "application/x-ndjson");
+
+        assertEquals(CARDS, lines.size());
+        for (int card = 0; card < CARDS; card++) {
+            JsonNode row = objectMapper.readTree(lines.get(card));
+            assertEquals(String.format("**** **** **** %04d", card), row.get("cardNumber").asText());
+            assertEquals(EMAIL, row.get("ownerEmail").asText());
+            assertEquals("ACTIVE", row.get("status").asText());
+            assertEquals(250.75, row.get("balance").asDouble());
+        }
+    }
+
+    @Test
+    void exportCards_ShouldRevealNumbersAsCsvWhenAsked() throws Exception {
+        List<String> lines = export(get("/api/admin/cards/export")
+                .param("ownerEmail", EMAIL)
+                .param("format", "CSV")
+                .param("revealCardNumbers", "true"), "text/csv;charset=UTF-8");
+
+        assertEquals("id,cardNumber,ownerEmail,expirationDate,status,balance", lines.get(0));
+        assertEquals(CARDS + 1, lines.size());
+        assertTrue(lines.get(1).contains(",4200000000000000," + EMAIL + ","), lines.get(1));
+    }
+
+    @Test
+    void exportCards_ShouldRejectUnknownOwnerBeforeStreaming() {
+        MockHttpServletRequestBuilder request = get("/api/admin/cards/export")
+                .param("ownerEmail", "nobody@example.com")
+                .with(user("admin").roles("ADMIN"));
+
+        ServletException exception = assertThrows(ServletException.class, () -> mockMvc.perform(request));
+        assertInstanceOf(EntityNotFoundException.class, exception.getCause());
+    }
+
+    @Test
+    void exportUsers_ShouldIncludeEveryUser() throws Exception {
+        List<String> lines = export(get("/api/admin/cards/users/export").param("format", "CSV"),
+                "text/csv;charset=UTF-8");
+
+        Long users = jdbcTemplate.queryForObject("SELECT count(*) FROM users", Long.class);
+        assertEquals(users + 1, lines.size());
+        assertTrue(lines.stream().anyMatch(line -> line.endsWith("," + EMAIL)));
+    }
+
+    @Test
+    void export_ShouldBeForbiddenForUsers() throws Exception {
+        mockMvc.perform(get("/api/admin/cards/users/export").with(user(EMAIL).roles("USER")))
+                .andExpect(status().isForbidden());
+    }
+
+    private List<String> export(MockHttpServletRequestBuilder request, String contentType) throws Exception {
+        MvcResult started = mockMvc.perform(request.with(user("admin").roles("ADMIN")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", contentType))
+                .andReturn();
+        return result.getResponse().getContentAsString(StandardCharsets.UTF_8).lines().toList();
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.bank.controller;
+
+import com.example.bank.support.BankIntegrationTest;
+import com.example.bank.support.TestDatabase;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@BankIntegrationTest
+@AutoConfigureMockMvc
+class AuthControllerIT {
+
+    private static final String PASSWORD = "secret-password";
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void signin_WithWeakerStoredHash_ShouldRehashWithConfiguredStrength() throws Exception {
+        String email = "rehash@example.com";
+        jdbcTemplate.update("INSERT INTO users (email, password) VALUES (?, ?)",
+                email, new BCryptPasswordEncoder(4).encode(PASSWORD));
+        Long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = ?", Long.class, email);
+        jdbcTemplate.update("INSERT INTO user_roles (user_id, role) VALUES (?, 'ROLE_USER')", userId);
+
+        signin(email, PASSWORD);
+
+        String stored = jdbcTemplate.queryForObject("SELECT password FROM users WHERE id = ?", String.class, userId);
+        assertTrue(stored.startsWith("$2a$10$"), stored);
+        signin(email, PASSWORD);
+    }
+
+    @Test
+    void signup_ShouldHashOnPasswordPoolAndAllowSignin() throws Exception {
+        String email = "signup@example.com";
+
+        mockMvc.perform(post("/api/auth/signup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(credentials(email, PASSWORD)))
+                .andExpect(status().isOk());
+
+        signin(email, PASSWORD);
+    }
+
+    @Test
+    void signin_RepeatedFailures_ShouldBeThrottledPerEmail() throws Exception {
+        String credentials = credentials("stuffing@example.com", "guess");
+        for (int attempt = 0; attempt < 5; attempt++) {
+            mockMvc.perform(post("/api/auth/signin").contentType(MediaType.APPLICATION_JSON).content(credentials))
+                    .andExpect(result -> assertNotEquals(429, result.getResponse().getStatus()));
+        }
+
+        mockMvc.perform(post("/api/auth/signin").contentType(MediaType.APPLICATION_JSON).content(credentials))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void refresh_ShouldRotateTokenAndRevokeSessionOnReuse() throws Exception {
+        JsonNode session = signin(createUser("rotate@example.com"), PASSWORD);
+        String first = session.get("refreshToken").asText();
+
+        JsonNode rotated = refresh(first, 200);
+        String second = rotated.get("refreshToken").asText();
+        assertNotEquals(first, second);
+        getCards(rotated.get("token").asText(), 200);
+
+        // The first token was already exchanged, so presenting it again ends the session
+        refresh(first, 401);
+        refresh(second, 401);
+        getCards(rotated.get("token").asText(), 403);
+    }
+
+    @Test
+    void logout_ShouldRejectAccessAndRefreshTokensOfSession() throws Exception {
+        JsonNode session = signin(createUser("logout@example.com"), PASSWORD);
+        String accessToken = session.get("token").asText();
+        getCards(accessToken, 200);
+
+        mockMvc.perform(post("/api/auth/logout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(refreshTokenBody(session.get("refreshToken").asText())))
+                .andExpect(status().isNoContent());
+
+        getCards(accessToken, 403);
+        refresh(session.get("refreshToken").asText(), 401);
+    }
+
+    @Test
+    void refreshAndLogout_WithoutToken_ShouldBeRejected() throws Exception {
+        for (String endpoint : new String[]{"/api/auth/refresh", "/api/auth/logout"}) {
+            mockMvc.perform(post(endpoint).contentType(MediaType.APPLICATION_JSON).content("{}"))
+                    .andExpect(status().isUnauthorized());
+            mockMvc.perform(post(endpoint).contentType(MediaType.APPLICATION_JSON).content(refreshTokenBody(" ")))
+                    .andExpect(status().isUnauthorized());
+        }
+    }
+
+    private String createUser(String email) {
+        jdbcTemplate.update("INSERT INTO users (email, password) VALUES (?, ?)",
+                email, new BCryptPasswordEncoder(10).encode(PASSWORD));
+        jdbcTemplate.update("INSERT INTO user_roles (user_id, role) SELECT id, 'ROLE_USER' FROM users WHERE email = ?",
+                email);
+        return email;
+    }
+
+    private JsonNode refresh(String refreshToken, int expectedStatus) throws Exception {
+        String body = mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(refreshTokenBody(refreshToken)))
+                .andExpect(status().is(expectedStatus))
+                .andReturn().getResponse().getContentAsString();
+        return body.isEmpty() ? null : objectMapper.readTree(body);
+    }
+
+    /**
+     * A request whose token is not accepted stays anonymous, which this security config answers with 403.
+     */
+    private void getCards(String accessToken, int expectedStatus) throws Exception {
+        mockMvc.perform(get("/api/user/cards").header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().is(expectedStatus));
+    }
+
+    private JsonNode signin(String email, String password) throws Exception {
+        String body = mockMvc.perform(post("/api/auth/signin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(credentials(email, password)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value(email))
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private static String refreshTokenBody(String refreshToken) {
+        return "{\"refreshToken\":\"" + refreshToken + "\"}";
+    }
+
+    private static String credentials(String email, String password) {
+        return "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}";
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.bank.controller;
+
+import com.example.bank.model.converter.CardNumberConverter;
+import com.example.bank.model.dto.request.TransferRequest;
+import com.example.bank.security.service.UserDetailsImpl;
+import com.example.bank.support.BankIntegrationTest;
+import com.example.bank.support.TestData;
+import com.example.bank.support.TestDatabase;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.example.bank.support.SqlAssertions.rows;
+import static com.example.bank.support.SqlAssertions.statements;
+import static com.example.bank.support.TestData.withPrincipal;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements per endpoint on a real Postgres, so an N+1 or an extra lookup fails the build.
+ * Every request is sent once before it is measured: the first one also loads the user into the user cache.
+ */
+@BankIntegrationTest
+@TestPropertySource(properties = "sql-accounting.enabled=true")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CardQueryCountIT {
+
+    private static final String EMAIL = "query-count@example.com";
+
+    private static final int CARDS = 5;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private CardNumberConverter cardNumberConverter;
+
+    private UserDetailsImpl currentUser;
+
+    private List<Long> cardIds;
+
+    @BeforeAll
+    void seed() {
+        long userId = testData.user(EMAIL);
+        for (int card = 0; card < CARDS; card++) {
+            String cardNumber = String.format("5100%012d", card);
+            jdbcTemplate.update("""
+                            INSERT INTO cards (card_number, last_four_digits, user_id, expiration_date, status, balance)
+                            VALUES (?, ?, ?, ?, 'ACTIVE', 1000)""",
+                    cardNumberConverter.encrypt(cardNumber), CardNumberConverter.lastFourDigits(cardNumber), userId,
+                    Date.valueOf(LocalDate.now().plusYears(3)));
+        }
+        cardIds = jdbcTemplate.queryForList("SELECT id FROM cards WHERE user_id = ? ORDER BY id", Long.class, userId);
+        currentUser = TestData.principal(userId, EMAIL);
+    }
+
+    // Reads run the ETag check first, so a full response is the version query plus the page itself
+
+    @Test
+    void getMyCards_ShouldRunVersionCheckAndOneStatement() throws Exception {
+        MockHttpServletRequestBuilder request = get("/api/user/cards").param("size", "50");
+
+        warmUp(request);
+        mockMvc.perform(withPrincipal(currentUser, request))
+                .andExpect(status().isOk())
+                .andExpect(statements(2))
+                .andExpect(rows(CARDS + 1));
+    }
+
+    @Test
+    void scrollMyCards_ShouldRunVersionCheckAndOneStatement() throws Exception {
+        MockHttpServletRequestBuilder request = get("/api/user/cards").param("cursor", "").param("size", "50");
+
+        warmUp(request);
+        mockMvc.perform(withPrincipal(currentUser, request))
+                .andExpect(status().isOk())
+                .andExpect(statements(2))
+                .andExpect(rows(CARDS + 1));
+    }
+
+    @Test
+    void getCardBalance_ShouldRunVersionCheckAndOneStatement() throws Exception {
+        MockHttpServletRequestBuilder request = get("/api/user/cards/{cardId}/balance", cardIds.get(0));
+
+        warmUp(request);
+        mockMvc.perform(withPrincipal(currentUser, request))
+                .andExpect(status().isOk())
+                .andExpect(statements(2));
+    }
+
+    @Test
+    void getMyCards_NotModified_ShouldRunOnlyVersionCheck() throws Exception {
+        String eTag = warmUp(get("/api/user/cards").param("size", "50"));
+
+        mockMvc.perform(withPrincipal(currentUser, get("/api/user/cards").param("size", "50")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag)))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""))
+                .andExpect(statements(1))
+                .andExpect(rows(1));
+    }
+
+    @Test
+    void getCardBalance_NotModified_ShouldRunOnlyVersionCheck() throws Exception {
+        String eTag = warmUp(get("/api/user/cards/{cardId}/balance", cardIds.get(0)));
+
+        mockMvc.perform(withPrincipal(currentUser, get("/api/user/cards/{cardId}/balance", cardIds.get(0))
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag)))
+                .andExpect(status().isNotModified())
+                .andExpect(statements(1))
+                .andExpect(rows(1));
+    }
+
+    @Test
+    void requestBlockCard_ShouldUpdateOnlyThatCard() throws Exception {
+        warmUp(get("/api/user/cards/{cardId}/balance", cardIds.get(0)));
+        mockMvc.perform(withPrincipal(currentUser,
+                        post("/api/user/cards/{cardId}/block-request", cardIds.get(CARDS - 1))))
+                .andExpect(status().isNoContent())
+                .andExpect(statements(1))
+                .andExpect(rows(1));
+    }
+
+    @Test
+    void transfer_ShouldDebitCreditAndRecordOnly() throws Exception {
+        TransferRequest transfer = new TransferRequest(cardIds.get(1), cardIds.get(2), BigDecimal.ONE);
+        MockHttpServletRequestBuilder request = post("/api/user/cards/transfer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(transfer));
+
+        warmUp(request);
+        mockMvc.perform(withPrincipal(currentUser, request))
+                .andExpect(status().isNoContent())
+                .andExpect(statements(3));
+    }
+
+    /**
+     * @return the ETag of the response, if any
+     */
+    private String warmUp(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(withPrincipal(currentUser, request))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.bank.controller;
+
+import com.example.bank.model.dto.request.TransferRequest;
+import com.example.bank.security.service.UserDetailsImpl;
+import com.example.bank.support.BankIntegrationTest;
+import com.example.bank.support.TestData;
+import com.example.bank.support.TestDatabase;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static com.example.bank.support.TestData.withPrincipal;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Committed card changes must reach the open streams of the owner, and nobody else's.
+ */
+@BankIntegrationTest
+@AutoConfigureMockMvc
+class CardStreamIT {
+
+    private static final long WAIT_MILLIS = 5_000;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestData testData;
+
+    private UserDetailsImpl currentUser;
+
+    private long sourceCardId;
+
+    private long targetCardId;
+
+    @BeforeEach
+    void seed() {
+        String email = "stream-" + System.nanoTime() + "@example.com";
+        long userId = testData.user(email);
+        sourceCardId = testData.card(userId);
+        targetCardId = testData.card(userId);
+        currentUser = TestData.principal(userId, email);
+    }
+
+    @Test
+    void transfer_ShouldPushNewBalancesAfterTheSnapshot() throws Exception {
+        MockHttpServletResponse stream = openStream();
+        awaitEvent(stream, "{\"id\":" + sourceCardId + ",\"balance\":100.00,\"status\":\"ACTIVE\"}");
+        awaitEvent(stream, "{\"id\":" + targetCardId + ",\"balance\":100.00,\"status\":\"ACTIVE\"}");
+
+        mockMvc.perform(withPrincipal(currentUser, post("/api/user/cards/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new TransferRequest(sourceCardId, targetCardId, BigDecimal.TEN)))))
+                .andExpect(status().isNoContent());
+
+        awaitEvent(stream, "{\"id\":" + sourceCardId + ",\"balance\":90.00,\"status\":\"ACTIVE\"}");
+        awaitEvent(stream, "{\"id\":" + targetCardId + ",\"balance\":110.00,\"status\":\"ACTIVE\"}");
+    }
+
+    @Test
+    void adminStatusChange_ShouldPushNewStatus() throws Exception {
+        MockHttpServletResponse stream = openStream();
+        awaitEvent(stream, "{\"id\":" + targetCardId + ",\"balance\":100.00,\"status\":\"ACTIVE\"}");
+
+        mockMvc.perform(put("/api/admin/cards/{cardId}/block", targetCardId).with(user("admin").roles("ADMIN")))
+                .andExpect(status().is2xxSuccessful());
+
+        awaitEvent(stream, "{\"id\":" + targetCardId + ",\"balance\":100.00,\"status\":\"BLOCKED\"}");
+    }
+
+    @Test
+    void adminBulkBlock_ShouldPushEveryBlockedCard() throws Exception {
+        MockHttpServletResponse stream = openStream();
+        awaitEvent(stream, "{\"id\":" + sourceCardId + ",\"balance\":100.00,\"status\":\"ACTIVE\"}");
+
+        mockMvc.perform(post("/api/admin/cards/bulk/block").with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ownerEmail\":\"" + currentUser.getEmail() + "\"}"))
+                .andExpect(status().isOk());
+
+        awaitEvent(stream, "{\"id\":" + sourceCardId + ",\"balance\":100.00,\"status\":\"BLOCKED\"}");
+        awaitEvent(stream, "{\"id\":" + targetCardId + ",\"balance\":100.00,\"status\":\"BLOCKED\"}");
+    }
+
+    @Test
+    void adminDelete_ShouldPushDeletedEvent() throws Exception {
+        MockHttpServletResponse stream = openStream();
+        awaitEvent(stream, "{\"id\":" + targetCardId + ",\"balance\":100.00,\"status\":\"ACTIVE\"}");
+
+        mockMvc.perform(delete("/api/admin/cards/{cardId}", targetCardId).with(user("admin").roles("ADMIN")))
+                .andExpect(status().is2xxSuccessful());
+
+        awaitEvent(stream, "deleted", "{\"id\":" + targetCardId + "}");
+    }
+
+    private MockHttpServletResponse openStream() throws Exception {
+        return mockMvc.perform(withPrincipal(currentUser, get("/api/user/cards/stream")))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+    }
+
+    private void awaitEvent(MockHttpServletResponse stream, String data) throws Exception {
+        awaitEvent(stream, "card", data);
+    }
+
+    private void awaitEvent(MockHttpServletResponse stream, String name, String data) throws Exception {
+        String expected = "event:" + name + "\ndata:" + data + "\n\n";
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        while (!stream.getContentAsString().contains(expected)) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("No event " + expected + " in\n" + stream.getContentAsString());
+            }
+            Thread.sleep(20);
+        }
+    }
+}
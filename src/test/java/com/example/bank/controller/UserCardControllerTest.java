@@ -111,7 +111,7 @@ public class UserCardControllerTest {
                         .content(json))
                 .andExpect(status().isNoContent());
 
-        verify(cardService).transferBetweenUserCards(EMAIL, request);
+        verify(cardService).transferBetweenUserCards(EMAIL, request, null);
     }
 
     @SneakyThrows
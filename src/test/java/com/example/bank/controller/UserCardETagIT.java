@@ -0,0 +1,116 @@
+package com.example.bank.controller;
+
+import com.example.bank.model.dto.request.TransferRequest;
+import com.example.bank.security.service.UserDetailsImpl;
+import com.example.bank.support.BankIntegrationTest;
+import com.example.bank.support.TestData;
+import com.example.bank.support.TestDatabase;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+
+import static com.example.bank.support.TestData.withPrincipal;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Every kind of card change must produce a new ETag, otherwise clients keep showing a stale balance.
+ */
+@BankIntegrationTest
+@AutoConfigureMockMvc
+class UserCardETagIT {
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestData testData;
+
+    private UserDetailsImpl currentUser;
+
+    private long sourceCardId;
+
+    private long targetCardId;
+
+    @BeforeEach
+    void seed() {
+        String email = "etag-" + System.nanoTime() + "@example.com";
+        long userId = testData.user(email);
+        sourceCardId = testData.card(userId);
+        targetCardId = testData.card(userId);
+        currentUser = TestData.principal(userId, email);
+    }
+
+    @Test
+    void transfer_ShouldChangeBalanceAndListETags() throws Exception {
+        String balanceETag = eTag(get("/api/user/cards/{cardId}/balance", sourceCardId));
+        String listETag = eTag(get("/api/user/cards"));
+
+        mockMvc.perform(withPrincipal(currentUser, post("/api/user/cards/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new TransferRequest(sourceCardId, targetCardId, BigDecimal.TEN)))))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(withPrincipal(currentUser, get("/api/user/cards/{cardId}/balance", sourceCardId)
+                        .header(HttpHeaders.IF_NONE_MATCH, balanceETag)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"));
+        mockMvc.perform(withPrincipal(currentUser, get("/api/user/cards").header(HttpHeaders.IF_NONE_MATCH, listETag)))
+                .andExpect(status().isOk());
+        assertNotEquals(balanceETag, eTag(get("/api/user/cards/{cardId}/balance", sourceCardId)));
+        assertNotEquals(listETag, eTag(get("/api/user/cards")));
+    }
+
+    @Test
+    void statusChange_ShouldChangeBalanceETag() throws Exception {
+        String balanceETag = eTag(get("/api/user/cards/{cardId}/balance", targetCardId));
+
+        mockMvc.perform(put("/api/admin/cards/{cardId}/block", targetCardId).with(user("admin").roles("ADMIN")))
+                .andExpect(status().is2xxSuccessful());
+
+        mockMvc.perform(withPrincipal(currentUser, get("/api/user/cards/{cardId}/balance", targetCardId)
+                        .header(HttpHeaders.IF_NONE_MATCH, balanceETag)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void unchangedCards_ShouldBeNotModified() throws Exception {
+        String listETag = eTag(get("/api/user/cards").param("cursor", ""));
+
+        mockMvc.perform(withPrincipal(currentUser, get("/api/user/cards").param("cursor", "")
+                        .header(HttpHeaders.IF_NONE_MATCH, listETag)))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, listETag));
+    }
+
+    private String eTag(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(withPrincipal(currentUser, request))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.bank.repository;
+
+import com.example.bank.model.entity.CardStatus;
+import com.example.bank.support.BankIntegrationTest;
+import com.example.bank.support.TestData;
+import com.example.bank.support.TestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The batch is validated against unlocked reads, so the UPDATE itself must refuse debits from cards that were
+ * blocked or expired in the meantime.
+ */
+@BankIntegrationTest
+class CardBalanceBatchRepositoryIT {
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+    }
+
+    @Autowired
+    private CardBalanceBatchRepository cardBalanceBatchRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestData testData;
+
+    private long userId;
+
+    @BeforeEach
+    void seed() {
+        String email = "batch-" + System.nanoTime() + "@example.com";
+        userId = testData.user(email);
+    }
+
+    @Test
+    void applyBalanceDeltas_ShouldRefuseDebitsFromInactiveCards() {
+        long active = testData.card(userId, CardStatus.ACTIVE, LocalDate.now().plusYears(1));
+        long blocked = testData.card(userId, CardStatus.BLOCKED, LocalDate.now().plusYears(1));
+        long expired = testData.card(userId, CardStatus.ACTIVE, LocalDate.now().minusDays(1));
+
+        TreeMap<Long, BigDecimal> deltas = new TreeMap<>();
+        deltas.put(active, BigDecimal.TEN.negate());
+        deltas.put(blocked, BigDecimal.TEN.negate());
+        deltas.put(expired, BigDecimal.TEN.negate());
+
+        assertArrayEquals(new int[]{1, 0, 0}, cardBalanceBatchRepository.applyBalanceDeltas(deltas));
+        assertEquals(0, new BigDecimal("90.00").compareTo(balance(active)));
+        assertEquals(0, new BigDecimal("100.00").compareTo(balance(blocked)));
+        assertEquals(0, new BigDecimal("100.00").compareTo(balance(expired)));
+    }
+
+    @Test
+    void applyBalanceDeltas_ShouldStillCreditInactiveCards() {
+        long blocked = testData.card(userId, CardStatus.BLOCKED, LocalDate.now().plusYears(1));
+
+        TreeMap<Long, BigDecimal> deltas = new TreeMap<>();
+        deltas.put(blocked, BigDecimal.TEN);
+
+        assertArrayEquals(new int[]{1}, cardBalanceBatchRepository.applyBalanceDeltas(deltas));
+        assertEquals(0, new BigDecimal("110.00").compareTo(balance(blocked)));
+    }
+
+    @Test
+    void currentDate_ShouldComeFromTheDatabase() {
+        assertEquals(jdbcTemplate.queryForObject("SELECT current_date", Date.class).toLocalDate(),
+                cardRepository.currentDate());
+    }
+
+    private BigDecimal balance(long cardId) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM cards WHERE id = ?", BigDecimal.class, cardId);
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.bank.repository;
+
+import com.example.bank.model.entity.CardStatus;
+import com.example.bank.repository.CardBulkRepository.CardSelection;
+import com.example.bank.support.BankIntegrationTest;
+import com.example.bank.support.TestData;
+import com.example.bank.support.TestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@BankIntegrationTest
+class CardBulkRepositoryIT {
+
+    private static final int CHUNK_SIZE = 3;
+
+    private static final LocalDate EXPIRY = LocalDate.of(2030, 6, 30);
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+    }
+
+    @Autowired
+    private CardBulkRepository cardBulkRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private long ownerId;
+
+    private long otherId;
+
+    @BeforeEach
+    void seed() {
+        ownerId = testData.user("bulk-owner-" + System.nanoTime() + "@example.com");
+        otherId = testData.user("bulk-other-" + System.nanoTime() + "@example.com");
+        // 10 cards of the owner, every fifth already blocked, and 2 cards of another user
+        for (int i = 0; i < 10; i++) {
+            testData.card(ownerId, i % 5 == 0 ? CardStatus.BLOCKED : CardStatus.ACTIVE, EXPIRY.plusDays(i));
+        }
+        testData.card(otherId, CardStatus.ACTIVE, EXPIRY);
+        testData.card(otherId, CardStatus.ACTIVE, EXPIRY);
+    }
+
+    @Test
+    void updateStatus_ShouldChangeOnlyMatchingCardsAcrossChunks() {
+        List<List<Long>> chunks = new ArrayList<>();
+        long affected = cardBulkRepository.updateStatus(
+                new CardSelection(ownerId, null, null, null, null), CardStatus.BLOCKED, CHUNK_SIZE, chunks::add);
+
+        assertEquals(8, affected);
+        assertEquals(List.of(3, 3, 2), chunks.stream().map(List::size).toList());
+        assertEquals(jdbcTemplate.queryForList("SELECT id FROM cards WHERE user_id = ? AND version = 1 ORDER BY id",
+                Long.class, ownerId), chunks.stream().flatMap(List::stream).toList());
+        assertEquals(10, countCards(ownerId, CardStatus.BLOCKED));
+        assertEquals(2, countCards(otherId, CardStatus.ACTIVE));
+        // Only the changed cards get a new version, which invalidates their ETags
+        assertEquals(8, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM cards WHERE user_id = ? AND version = 1", Integer.class, ownerId));
+    }
+
+    @Test
+    void updateStatus_ShouldContinuePastARowRemovedWhileLocked() throws Exception {
+        List<Long> matching = jdbcTemplate.queryForList(
+                "SELECT id FROM cards WHERE user_id = ? AND status = 'ACTIVE' ORDER BY id", Long.class, ownerId);
+
+        List<Long> changed = new ArrayList<>();
+        Future<Long> affected;
+        try (Connection other = dataSource.getConnection();
+             ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            other.setAutoCommit(false);
+            try (PreparedStatement delete = other.prepareStatement("DELETE FROM cards WHERE id = ?")) {
+                delete.setLong(1, matching.get(1));
+                delete.executeUpdate();
+            }
+
+            // The first chunk waits on the deleted row and then locks only two of its three rows
+            affected = executor.submit(() -> cardBulkRepository.updateStatus(
+                    new CardSelection(ownerId, null, null, null, null), CardStatus.BLOCKED, CHUNK_SIZE,
+                    changed::addAll));
+            awaitLockWait();
+            other.commit();
+        }
+
+        assertEquals(7, affected.get());
+        assertEquals(matching.stream().filter(id -> !id.equals(matching.get(1))).toList(), changed);
+        assertEquals(9, countCards(ownerId, CardStatus.BLOCKED));
+    }
+
+    @Test
+    void updateStatus_ByIdsAndExpiryRange_ShouldCombineCriteria() {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM cards WHERE user_id IN (?, ?) ORDER BY id", Long.class, ownerId, otherId);
+
+        long affected = cardBulkRepository.updateStatus(new CardSelection(null, CardStatus.ACTIVE, ids,
+                EXPIRY, EXPIRY.plusDays(4)), CardStatus.EXPIRED, CHUNK_SIZE, chunk -> { });
+
+        // Owner cards 1..4 and both cards of the other user expire in the range; card 0 is blocked
+        assertEquals(6, affected);
+        assertEquals(6, countCards(CardStatus.EXPIRED, ids));
+    }
+
+    @Test
+    void delete_ShouldRemoveMatchingCardsAcrossChunks() {
+        List<Long> deleted = new ArrayList<>();
+        long affected = cardBulkRepository.delete(
+                new CardSelection(ownerId, CardStatus.ACTIVE, null, null, null), CHUNK_SIZE, deleted::addAll);
+
+        assertEquals(8, affected);
+        assertEquals(8, deleted.size());
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM cards WHERE user_id = ?", Integer.class, ownerId));
+        assertEquals(2, countCards(otherId, CardStatus.ACTIVE));
+    }
+
+    @Test
+    void expireActiveCards_ShouldSkipCardsLockedElsewhere() throws Exception {
+        List<Long> pastDue = List.of(
+                testData.card(ownerId, CardStatus.ACTIVE, LocalDate.now().minusDays(3)),
+                testData.card(ownerId, CardStatus.ACTIVE, LocalDate.now().minusDays(2)),
+                testData.card(ownerId, CardStatus.ACTIVE, LocalDate.now().minusDays(1)));
+        long blockedPastDue = testData.card(ownerId, CardStatus.BLOCKED, LocalDate.now().minusDays(1));
+
+        try (Connection otherNode = dataSource.getConnection()) {
+            otherNode.setAutoCommit(false);
+            try (PreparedStatement lock = otherNode.prepareStatement("SELECT id FROM cards WHERE id = ? FOR UPDATE")) {
+                lock.setLong(1, pastDue.get(0));
+                lock.executeQuery().close();
+            }
+
+            // May also expire past-due cards left by other tests, but never the locked one
+            while (!cardBulkRepository.expireActiveCards(1).isEmpty()) {
+                assertEquals(CardStatus.ACTIVE.name(), status(pastDue.get(0)));
+            }
+            otherNode.rollback();
+        }
+
+        assertEquals(CardStatus.ACTIVE.name(), status(pastDue.get(0)));
+        assertEquals(CardStatus.EXPIRED.name(), status(pastDue.get(1)));
+        assertEquals(CardStatus.EXPIRED.name(), status(pastDue.get(2)));
+        assertEquals(CardStatus.BLOCKED.name(), status(blockedPastDue));
+        assertEquals(List.of(pastDue.get(0)), cardBulkRepository.expireActiveCards(10));
+        assertEquals(CardStatus.EXPIRED.name(), status(pastDue.get(0)));
+    }
+
+    private void awaitLockWait() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock' AND query LIKE 'WITH batch%'",
+                Integer.class) == 0) {
+            assertTrue(System.currentTimeMillis() < deadline, "The bulk update never waited on the deleted row");
+            Thread.sleep(10);
+        }
+    }
+
+    private String status(long cardId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM cards WHERE id = ?", String.class, cardId);
+    }
+
+    private int countCards(long userId, CardStatus status) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM cards WHERE user_id = ? AND status = ?",
+                Integer.class, userId, status.name());
+    }
+
+    private int countCards(CardStatus status, List<Long> ids) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM cards WHERE status = ? AND id = ANY(?)",
+                Integer.class, status.name(), ids.toArray(Long[]::new));
+    }
+}
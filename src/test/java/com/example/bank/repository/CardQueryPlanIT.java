@@ -0,0 +1,120 @@
+package com.example.bank.repository;
+
+import com.example.bank.model.entity.CardStatus;
+import com.example.bank.service.CardService;
+import com.example.bank.support.BankIntegrationTest;
+import com.example.bank.support.QueryPlans;
+import com.example.bank.support.QueryPlans.CapturedQuery;
+import com.example.bank.support.TestDatabase;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs EXPLAIN on the SQL generated for each card filter at a realistic table size and fails when a plan falls
+ * back to a sequential scan, e.g. because an index from the changelog was dropped or no longer matches.
+ */
+@BankIntegrationTest
+@TestPropertySource(properties = "sql-accounting.enabled=true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CardQueryPlanIT {
+
+    private static final int USERS = 2_000;
+
+    private static final int CARDS_PER_USER = 50;
+
+    private static final String EMAIL = "plan-user-1000@example.com";
+
+    private static final Sort BY_ID = Sort.by("id");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+    }
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("""
+                INSERT INTO users (email, password)
+                SELECT 'plan-user-' || g || '@example.com', 'not-used' FROM generate_series(1, ?) g""", USERS);
+        // About 90% active, 8% blocked and 2% expired cards
+        jdbcTemplate.update("""
+                INSERT INTO cards (card_number, last_four_digits, user_id, expiration_date, status, balance)
+                SELECT 'not-encrypted', lpad((g % 10000)::text, 4, '0'), u.id, current_date + 1000,
+                       CASE WHEN g % 50 = 0 THEN 'EXPIRED' WHEN g % 12 = 0 THEN 'BLOCKED' ELSE 'ACTIVE' END, 100
+                FROM users u CROSS JOIN generate_series(1, ?) g
+                WHERE u.email LIKE 'plan-user-%'""", CARDS_PER_USER);
+        jdbcTemplate.execute("VACUUM ANALYZE users");
+        jdbcTemplate.execute("VACUUM ANALYZE cards");
+    }
+
+    @Test
+    void userCardsPage_ShouldUseOwnerIndex() {
+        assertNoSeqScan(() -> cardService.getUserCards(EMAIL, PageRequest.of(1, 20)));
+    }
+
+    @Test
+    void userCardsCursor_ShouldUseOwnerIndex() {
+        assertNoSeqScan(() -> cardService.scrollUserCards(EMAIL, "", 20));
+    }
+
+    @Test
+    void adminCardsByStatusPage_ShouldUseStatusIndex() {
+        // Unsorted, a LIMIT over a common status is cheapest as a seq scan that stops early, so pin the sorted page
+        assertNoSeqScan(() -> cardService.getAllCards(null, CardStatus.BLOCKED, PageRequest.of(1, 20, BY_ID)));
+    }
+
+    @Test
+    void adminCardsByStatusCursor_ShouldUseStatusIndex() {
+        assertNoSeqScan(() -> cardService.scrollAllCards(null, CardStatus.EXPIRED, "", 20));
+    }
+
+    @Test
+    void adminActiveCardsOfOwner_ShouldUseAnIndex() {
+        assertNoSeqScan(() -> cardService.scrollAllCards(EMAIL, CardStatus.ACTIVE, "", 20));
+        assertNoSeqScan(() -> cardService.getAllCards(EMAIL, CardStatus.ACTIVE, PageRequest.of(1, 20, BY_ID)));
+    }
+
+    private void assertNoSeqScan(Runnable action) {
+        List<CapturedQuery> queries = QueryPlans.capture(dataSource, action);
+        assertFalse(queries.isEmpty(), "No SQL captured");
+
+        for (CapturedQuery query : queries) {
+            JsonNode plan = explain(query);
+            List<String> seqScans = QueryPlans.seqScans(plan);
+            assertTrue(seqScans.isEmpty(), () -> "Sequential scan on " + seqScans + " for\n" + query.sql()
+                    + "\n" + plan.toPrettyString());
+        }
+    }
+
+    private JsonNode explain(CapturedQuery query) {
+        try {
+            return QueryPlans.explain(dataSource, query);
+        } catch (Exception e) {
+            throw new IllegalStateException("EXPLAIN failed for " + query.sql(), e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.bank.security;
+
+import com.example.bank.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LoginRateLimiterTest {
+
+    private static final String IP = "10.0.0.1";
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private SimpleMeterRegistry registry;
+    private LoginRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        limiter = new LoginRateLimiter(registry, true, 4, Duration.ofSeconds(1), 2, Duration.ofSeconds(10), 1000,
+                clock::get);
+    }
+
+    @Test
+    void acquire_ShouldAllowBurstThenRejectWithTimeUntilNextToken() {
+        limiter.acquire(IP, "user@example.com");
+        limiter.acquire(IP, "USER@example.com ");
+
+        TooManyRequestsException rejected = assertThrows(TooManyRequestsException.class,
+                () -> limiter.acquire(IP, "user@example.com"));
+
+        assertEquals(Duration.ofSeconds(10), rejected.getRetryAfter());
+        assertEquals("10", rejected.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(1, registry.get("bank.login.throttled").tag("key", "email").counter().count());
+    }
+
+    @Test
+    void acquire_ShouldRefillOneTokenPerInterval() {
+        limiter.acquire(IP, "user@example.com");
+        limiter.acquire(IP, "user@example.com");
+
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        assertDoesNotThrow(() -> limiter.acquire(IP, "user@example.com"));
+        assertThrows(TooManyRequestsException.class, () -> limiter.acquire(IP, "user@example.com"));
+    }
+
+    @Test
+    void acquire_ShouldLimitIpAcrossEmails() {
+        for (int i = 0; i < 4; i++) {
+            limiter.acquire(IP, "user" + i + "@example.com");
+        }
+
+        assertThrows(TooManyRequestsException.class, () -> limiter.acquire(IP, "other@example.com"));
+        assertDoesNotThrow(() -> limiter.acquire("10.0.0.2", "other@example.com"));
+        assertEquals(1, registry.get("bank.login.throttled").tag("key", "ip").counter().count());
+    }
+
+    @Test
+    void acquire_WhenDisabled_ShouldNeverReject() {
+        limiter = new LoginRateLimiter(registry, false, 1, Duration.ofHours(1), 1, Duration.ofHours(1), 1000,
+                clock::get);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire(IP, "user@example.com");
+        }
+    }
+}
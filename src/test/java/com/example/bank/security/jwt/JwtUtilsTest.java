@@ -0,0 +1,75 @@
+package com.example.bank.security.jwt;
+
+import com.example.bank.security.service.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilsTest {
+
+    private static final String SECRET = Base64.getEncoder()
+            .encodeToString("0123456789abcdef0123456789abcdef".getBytes());
+
+    private static final UUID SESSION_ID = UUID.fromString("6f1c2d0e-4b7a-4e59-9a51-0c7d2b8e3f14");
+
+    private JwtUtils jwtUtils;
+
+    private UserDetailsImpl principal;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60_000);
+        jwtUtils.initSigningKey();
+
+        principal = new UserDetailsImpl(7L, "user@example.com", "hash",
+                List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN")));
+    }
+
+    @Test
+    void generatedToken_ShouldCarryIdAndRoles() {
+        String token = jwtUtils.generateJwtToken(principal, SESSION_ID);
+
+        Claims claims = jwtUtils.parseJwtClaims(token);
+        assertNotNull(claims);
+
+        UserDetailsImpl details = jwtUtils.getUserDetailsFromClaims(claims);
+        assertEquals(7L, details.getId());
+        assertEquals("user@example.com", details.getUsername());
+        assertNull(details.getPassword());
+        assertEquals(List.of("ROLE_USER", "ROLE_ADMIN"), details.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList()));
+        assertEquals(SESSION_ID.toString(), jwtUtils.getSessionId(claims));
+        assertNotNull(claims.getId());
+    }
+
+    @Test
+    void parseJwtClaims_TamperedToken_ShouldReturnNull() {
+        String token = jwtUtils.generateJwtToken(principal, SESSION_ID);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertNull(jwtUtils.parseJwtClaims(tampered));
+        assertFalse(jwtUtils.validateJwtToken(tampered));
+        assertNull(jwtUtils.parseJwtClaims("not-a-token"));
+    }
+
+    @Test
+    void getUserDetailsFromClaims_LegacyToken_ShouldReturnNull() {
+        Claims claims = Jwts.claims().setSubject("user@example.com");
+
+        assertNull(jwtUtils.getUserDetailsFromClaims(claims));
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.bank.security.jwt;
+
+import com.example.bank.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RevokedSessionsTest {
+
+    private RefreshTokenRepository refreshTokenRepository;
+    private RevokedSessions revokedSessions;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenRepository = mock(RefreshTokenRepository.class);
+        revokedSessions = new RevokedSessions(refreshTokenRepository, new SimpleMeterRegistry(), 60_000);
+    }
+
+    @Test
+    void revoke_ShouldStoreRevocationAndRejectLocallyAtOnce() {
+        UUID sessionId = UUID.randomUUID();
+
+        revokedSessions.revoke(sessionId);
+
+        assertTrue(revokedSessions.isRevoked(sessionId.toString()));
+        assertFalse(revokedSessions.isRevoked(UUID.randomUUID().toString()));
+        assertFalse(revokedSessions.isRevoked(null));
+        verify(refreshTokenRepository).insertRevocation(eq(sessionId), any());
+    }
+
+    @Test
+    void sync_ShouldPickUpRevocationsOfOtherNodesWithOverlap() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        Instant firstPoll = Instant.parse("2026-10-17T10:00:00Z");
+        when(refreshTokenRepository.currentTime()).thenReturn(firstPoll, firstPoll.plusSeconds(5));
+        when(refreshTokenRepository.findRevokedSessionsSince(any())).thenReturn(List.of(first), List.of(second));
+
+        revokedSessions.sync();
+        revokedSessions.sync();
+
+        assertTrue(revokedSessions.isRevoked(first.toString()));
+        assertTrue(revokedSessions.isRevoked(second.toString()));
+        verify(refreshTokenRepository).findRevokedSessionsSince(firstPoll.minusSeconds(30));
+    }
+
+    @Test
+    void sync_DatabaseUnavailable_ShouldKeepKnownRevocations() {
+        UUID sessionId = UUID.randomUUID();
+        revokedSessions.revoke(sessionId);
+        when(refreshTokenRepository.currentTime()).thenThrow(new QueryTimeoutException("timeout"));
+
+        revokedSessions.sync();
+
+        assertTrue(revokedSessions.isRevoked(sessionId.toString()));
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.bank.security.service;
+
+import com.example.bank.model.entity.Role;
+import com.example.bank.model.entity.User;
+import com.example.bank.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserDetailsServiceImplTest {
+
+    private UserRepository userRepository;
+    private UserDetailsServiceImpl userDetailsService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        userDetailsService = new UserDetailsServiceImpl(userRepository, 100, Duration.ofMinutes(5));
+
+        user = new User();
+        user.setId(1L);
+        user.setEmail("user@example.com");
+        user.setPassword("hash");
+        user.setRoles(Set.of(Role.ROLE_USER));
+    }
+
+    @Test
+    void loadUserByUsername_ShouldHitDatabaseOnce() {
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+
+        userDetailsService.loadUserByUsername(user.getEmail());
+        UserDetailsImpl details = (UserDetailsImpl) userDetailsService.loadUserByUsername(user.getEmail());
+
+        assertEquals(1L, details.getId());
+        verify(userRepository, times(1)).findByEmail(user.getEmail());
+    }
+
+    @Test
+    void bindTo_ShouldPublishCacheHitsAndMisses() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        userDetailsService.bindTo(registry);
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+
+        userDetailsService.loadUserByUsername(user.getEmail());
+        userDetailsService.loadUserByUsername(user.getEmail());
+        userDetailsService.findById(1L);
+
+        assertEquals(1, cacheGets(registry, "users.byEmail", "hit"));
+        assertEquals(1, cacheGets(registry, "users.byEmail", "miss"));
+        assertEquals(1, cacheGets(registry, "users.byId", "hit"));
+    }
+
+    private static double cacheGets(MeterRegistry registry, String cache, String result) {
+        return registry.get("cache.gets").tag("cache", cache).tag("result", result).functionCounter().count();
+    }
+
+    @Test
+    void findById_ShouldBeServedByEmailLookup() {
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+
+        userDetailsService.findByEmail(user.getEmail());
+
+        assertEquals(user.getEmail(), userDetailsService.findById(1L).orElseThrow().getEmail());
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void evict_ShouldReloadUser() {
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+
+        userDetailsService.findByEmail(user.getEmail());
+        userDetailsService.evict(user);
+        userDetailsService.findByEmail(user.getEmail());
+
+        verify(userRepository, times(2)).findByEmail(user.getEmail());
+    }
+
+    @Test
+    void loadUserByUsername_UnknownUser_ShouldNotBeCached() {
+        when(userRepository.findByEmail("missing@example.com")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class,
+                () -> userDetailsService.loadUserByUsername("missing@example.com"));
+        assertThrows(UsernameNotFoundException.class,
+                () -> userDetailsService.loadUserByUsername("missing@example.com"));
+
+        verify(userRepository, times(2)).findByEmail("missing@example.com");
+    }
+
+    @Test
+    void updatePassword_ShouldStoreAndCacheNewHash() {
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        UserDetailsImpl details = userDetailsService.findByEmail(user.getEmail()).orElseThrow();
+
+        UserDetails updated = userDetailsService.updatePassword(details, "new-hash");
+
+        assertEquals("new-hash", updated.getPassword());
+        verify(userRepository).updatePassword(1L, "new-hash");
+        assertEquals("new-hash", userDetailsService.findByEmail(user.getEmail()).orElseThrow().getPassword());
+        assertEquals("new-hash", userDetailsService.findById(1L).orElseThrow().getPassword());
+        verify(userRepository, times(1)).findByEmail(user.getEmail());
+    }
+}
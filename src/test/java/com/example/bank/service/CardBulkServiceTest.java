@@ -0,0 +1,111 @@
+package com.example.bank.service;
+
+import com.example.bank.exception.InvalidBulkFilterException;
+import com.example.bank.model.dto.request.CardBulkFilter;
+import com.example.bank.model.entity.CardStatus;
+import com.example.bank.model.entity.User;
+import com.example.bank.repository.CardBulkRepository;
+import com.example.bank.repository.CardBulkRepository.CardSelection;
+import com.example.bank.security.service.UserDetailsImpl;
+import com.example.bank.security.service.UserDetailsServiceImpl;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class CardBulkServiceTest {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private CardBulkRepository cardBulkRepository;
+    private UserDetailsServiceImpl userDetailsService;
+    private CardEventPublisher cardEventPublisher;
+    private CardBulkService cardBulkService;
+
+    @BeforeEach
+    void setUp() {
+        cardBulkRepository = mock(CardBulkRepository.class);
+        userDetailsService = mock(UserDetailsServiceImpl.class);
+        cardEventPublisher = mock(CardEventPublisher.class);
+        cardBulkService = new CardBulkService(cardBulkRepository, userDetailsService, cardEventPublisher, CHUNK_SIZE);
+    }
+
+    @Test
+    void changeStatus_ByOwner_ShouldResolveOwnerIdAndReturnAffectedCount() {
+        User user = new User();
+        user.setId(7L);
+        user.setEmail("owner@example.com");
+        when(userDetailsService.findByEmail("owner@example.com")).thenReturn(Optional.of(UserDetailsImpl.build(user)));
+        CardSelection selection = new CardSelection(7L, CardStatus.ACTIVE, null, null, null);
+        when(cardBulkRepository.updateStatus(eq(selection), eq(CardStatus.BLOCKED), eq(CHUNK_SIZE), any()))
+                .thenAnswer(invocation -> {
+                    invocation.<Consumer<List<Long>>>getArgument(3).accept(List.of(1L, 2L));
+                    return 3000L;
+                });
+
+        long affected = cardBulkService.changeStatus(
+                new CardBulkFilter("owner@example.com", CardStatus.ACTIVE, null, null, null), CardStatus.BLOCKED)
+                .getAffected();
+
+        assertEquals(3000L, affected);
+        // Each committed chunk reaches the open card streams
+        verify(cardEventPublisher).cardsChanged(List.of(1L, 2L));
+    }
+
+    @Test
+    void changeStatus_EmptyFilter_ShouldBeRejected() {
+        assertThrows(InvalidBulkFilterException.class,
+                () -> cardBulkService.changeStatus(new CardBulkFilter(), CardStatus.BLOCKED));
+        assertThrows(InvalidBulkFilterException.class, () -> cardBulkService.delete(null));
+        verifyNoInteractions(cardBulkRepository);
+    }
+
+    @Test
+    void delete_InvertedExpiryRange_ShouldBeRejected() {
+        CardBulkFilter filter = new CardBulkFilter(null, null, null,
+                LocalDate.of(2027, 1, 1), LocalDate.of(2026, 1, 1));
+
+        assertThrows(InvalidBulkFilterException.class, () -> cardBulkService.delete(filter));
+    }
+
+    @Test
+    void delete_EmptyIdList_ShouldMatchNothing() {
+        long affected = cardBulkService.delete(new CardBulkFilter(null, null, List.of(), null, null)).getAffected();
+
+        assertEquals(0, affected);
+        verifyNoInteractions(cardBulkRepository);
+    }
+
+    @Test
+    void delete_UnknownOwner_ShouldThrow() {
+        when(userDetailsService.findByEmail("missing@example.com")).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> cardBulkService.delete(
+                new CardBulkFilter("missing@example.com", null, null, null, null)));
+    }
+
+    @Test
+    void delete_ByExpiryRange_ShouldDelegateWithChunkSize() {
+        LocalDate from = LocalDate.of(2026, 1, 1);
+        LocalDate to = LocalDate.of(2026, 12, 31);
+        when(cardBulkRepository.delete(any(), anyInt(), any())).thenReturn(5L);
+
+        cardBulkService.delete(new CardBulkFilter(null, null, null, from, to));
+
+        verify(cardBulkRepository).delete(eq(new CardSelection(null, null, null, from, to)), eq(CHUNK_SIZE), any());
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.bank.service;
+
+import com.example.bank.model.dto.response.CardEventResponse;
+import com.example.bank.model.entity.CardStatus;
+import com.example.bank.repository.CardRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CardEventPublisherTest {
+
+    private CardRepository cardRepository;
+    private MeterRegistry meterRegistry;
+    private CardEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        cardRepository = mock(CardRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        publisher = new CardEventPublisher(cardRepository, meterRegistry, Duration.ofMinutes(1), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        publisher.close();
+    }
+
+    @Test
+    void subscribe_ShouldSendSnapshotOfTheCards() {
+        publisher.subscribe(1L, List.of(10L, 11L));
+
+        verify(cardRepository, timeout(1000)).findCardEvents(List.of(10L, 11L));
+        assertEquals(1, meterRegistry.get("bank.card_stream.subscribers").gauge().value());
+    }
+
+    @Test
+    void cardsChanged_ShouldCoalesceUpdatesArrivingDuringADrain() throws InterruptedException {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(cardRepository.findCardEvents(any())).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(new CardEventResponse(10L, BigDecimal.TEN, CardStatus.ACTIVE));
+        });
+
+        publisher.subscribe(1L, List.of(10L));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 10; i++) {
+            publisher.cardsChanged(List.of(10L));
+        }
+        release.countDown();
+
+        // The snapshot plus one load for all ten changes
+        verify(cardRepository, after(300).times(2)).findCardEvents(List.of(10L));
+    }
+
+    @Test
+    void cardsChanged_ShouldIgnoreCardsNobodyWatches() {
+        publisher.subscribe(1L, List.of());
+
+        publisher.cardsChanged(List.of(10L));
+
+        verify(cardRepository, after(200).never()).findCardEvents(any());
+    }
+
+    @Test
+    void subscribe_ShouldResyncInsteadOfLoadingWhenTooManyCardsArePending() {
+        publisher.subscribe(1L, List.of(10L, 11L, 12L));
+
+        verify(cardRepository, after(200).never()).findCardEvents(any());
+        assertEquals(1, meterRegistry.get("bank.card_stream.events").tag("type", "resync").counter().count());
+    }
+
+    @Test
+    void cardCreated_ShouldReachOnlyTheStreamsOfTheOwner() {
+        when(cardRepository.findCardEvents(List.of(20L)))
+                .thenReturn(List.of(new CardEventResponse(20L, BigDecimal.ZERO, CardStatus.ACTIVE)));
+        publisher.subscribe(1L, List.of());
+
+        publisher.cardCreated(2L, 30L);
+        publisher.cardCreated(1L, 20L);
+
+        verify(cardRepository, timeout(1000)).findCardEvents(List.of(20L));
+        verify(cardRepository, never()).findCardEvents(List.of(30L));
+
+        publisher.cardsChanged(List.of(20L));
+        verify(cardRepository, timeout(1000).times(2)).findCardEvents(List.of(20L));
+    }
+
+    @Test
+    void cardsChanged_ShouldReportCardsThatNoLongerExistAsDeleted() throws InterruptedException {
+        when(cardRepository.findCardEvents(List.of(10L, 11L)))
+                .thenReturn(List.of(new CardEventResponse(10L, BigDecimal.TEN, CardStatus.ACTIVE)));
+        publisher.subscribe(1L, List.of(10L, 11L));
+        awaitEvents("deleted", 1);
+
+        // The deleted card is no longer watched
+        publisher.cardsChanged(List.of(11L));
+        verify(cardRepository, after(200).never()).findCardEvents(List.of(11L));
+    }
+
+    private void awaitEvents(String type, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 1000;
+        while (meterRegistry.get("bank.card_stream.events").tag("type", type).counter().count() < count) {
+            assertTrue(System.currentTimeMillis() < deadline, "No " + type + " event sent");
+            Thread.sleep(10);
+        }
+    }
+}
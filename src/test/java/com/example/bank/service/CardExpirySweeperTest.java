@@ -0,0 +1,95 @@
+package com.example.bank.service;
+
+import com.example.bank.repository.CardBulkRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.LongStream;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CardExpirySweeperTest {
+
+    private CardBulkRepository cardBulkRepository;
+    private CardEventPublisher cardEventPublisher;
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        cardBulkRepository = mock(CardBulkRepository.class);
+        cardEventPublisher = mock(CardEventPublisher.class);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void sweep_ShouldRunBatchesUntilOneIsShort() {
+        when(cardBulkRepository.expireActiveCards(500)).thenReturn(ids(1, 500), ids(501, 500), ids(1001, 120));
+        CardExpirySweeper sweeper = sweeper(500, 1_000_000);
+
+        assertEquals(1120, sweeper.sweep());
+
+        verify(cardEventPublisher).cardsChanged(ids(1001, 120));
+        verify(cardBulkRepository, times(3)).expireActiveCards(500);
+        assertEquals(1120, meterRegistry.counter("bank.cards.expired").count());
+        assertEquals(3, meterRegistry.timer("bank.card_expiry.batch").count());
+    }
+
+    @Test
+    void sweep_ShouldPaceBatchesToTheThroughputCap() {
+        when(cardBulkRepository.expireActiveCards(50)).thenReturn(ids(1, 50), ids(51, 50), List.of());
+        CardExpirySweeper sweeper = sweeper(50, 500);
+
+        long started = System.nanoTime();
+        sweeper.sweep();
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        // Two full batches of 50 cards at 500 cards/s take at least 100 ms each
+        assertTrue(elapsedMillis >= 200, "Sweep took only " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void startSweep_ShouldReturnAtOnceAndNotOverlapARunningSweep() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(cardBulkRepository.expireActiveCards(500)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+
+        try (CardExpirySweeper sweeper = sweeper(500, 1_000_000)) {
+            sweeper.startSweep();
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            // The scheduler thread is free while the sweep runs, and a second trigger is skipped
+            sweeper.startSweep();
+            release.countDown();
+
+            verify(cardBulkRepository, after(200).times(1)).expireActiveCards(500);
+            sweeper.startSweep();
+            verify(cardBulkRepository, timeout(1000).times(2)).expireActiveCards(500);
+        }
+        verify(cardEventPublisher, never()).cardsChanged(any());
+    }
+
+    private CardExpirySweeper sweeper(int batchSize, double maxCardsPerSecond) {
+        return new CardExpirySweeper(cardBulkRepository, cardEventPublisher, meterRegistry, batchSize, maxCardsPerSecond);
+    }
+
+    private static List<Long> ids(long first, int count) {
+        return LongStream.range(first, first + count).boxed().toList();
+    }
+}
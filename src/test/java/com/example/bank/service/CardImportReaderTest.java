@@ -0,0 +1,50 @@
+package com.example.bank.service;
+
+import com.example.bank.service.CardImportReader.Record;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CardImportReaderTest {
+
+    @Test
+    void csv_ShouldHandleQuotesAndReportBadRows() throws Exception {
+        CardImportReader reader = reader(ExportFormat.CSV,
+                "id,OwnerEmail,cardNumber\r\n1,\"a,\"\"b\"\"\nc\",4000\r\n2,only-two\r\n\r\n3,,4001\r\n");
+
+        Record first = reader.next();
+        assertEquals(1, first.number());
+        assertEquals("a,\"b\"\nc", first.get("ownerEmail"));
+        assertEquals("4000", first.get("cardNumber"));
+
+        Record second = reader.next();
+        assertEquals("Expected 3 columns, got 2", second.error());
+
+        Record third = reader.next();
+        assertEquals(3, third.number());
+        assertNull(third.get("ownerEmail"));
+        assertNull(reader.next());
+    }
+
+    @Test
+    void ndjson_ShouldSkipBlankLinesAndReportMalformedOnes() throws Exception {
+        CardImportReader reader = reader(ExportFormat.NDJSON,
+                "{\"ownerEmail\":\"a@example.com\",\"balance\":10.5,\"status\":null}\n\n{oops\n[1]\n");
+
+        Record first = reader.next();
+        assertEquals("a@example.com", first.get("ownerEmail"));
+        assertEquals("10.5", first.get("balance"));
+        assertNull(first.get("status"));
+        assertEquals("Malformed JSON", reader.next().error());
+        assertEquals("Expected a JSON object", reader.next().error());
+        assertNull(reader.next());
+    }
+
+    private static CardImportReader reader(ExportFormat format, String content) {
+        return new CardImportReader(format, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.bank.service;
+
+import com.example.bank.exception.InvalidImportOffsetException;
+import com.example.bank.model.converter.CardNumberConverter;
+import com.example.bank.model.dto.response.CardImportResponse;
+import com.example.bank.model.dto.response.UserResponse;
+import com.example.bank.model.entity.Card;
+import com.example.bank.model.entity.CardStatus;
+import com.example.bank.repository.CardRepository;
+import com.example.bank.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CardImportServiceTest {
+
+    private static final int CHUNK_SIZE = 2;
+
+    private static final String EMAIL = "owner@example.com";
+
+    private static final String EXPIRES = LocalDate.now().plusYears(3).toString();
+
+    private CardRepository cardRepository;
+    private UserRepository userRepository;
+    private CardEventPublisher cardEventPublisher;
+    private CardImportService cardImportService;
+    private List<List<Card>> insertedChunks;
+
+    @BeforeEach
+    void setUp() {
+        cardRepository = mock(CardRepository.class);
+        when(cardRepository.currentDate()).thenReturn(LocalDate.now());
+        userRepository = mock(UserRepository.class);
+        CardNumberConverter cardNumberConverter = mock(CardNumberConverter.class);
+        when(cardNumberConverter.encryptAll(anyList())).thenAnswer(invocation -> invocation.<List<String>>getArgument(0)
+                .stream().map(number -> "enc:" + number).toList());
+        when(userRepository.findUserResponsesByEmailIn(anyCollection())).thenReturn(List.of(new UserResponse(7L, EMAIL)));
+        insertedChunks = new ArrayList<>();
+        doAnswer(invocation -> insertedChunks.add(List.copyOf(invocation.getArgument(0))))
+                .when(cardRepository).insertAll(anyList());
+
+        cardEventPublisher = mock(CardEventPublisher.class);
+        cardImportService = new CardImportService(cardRepository, userRepository, cardNumberConverter,
+                cardEventPublisher, mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), CHUNK_SIZE, 10);
+    }
+
+    @Test
+    void importCards_ShouldInsertValidRecordsChunkByChunk() throws Exception {
+        CardImportResponse response = cardImportService.importCards(csv(
+                EMAIL + ",4000000000000001," + EXPIRES + ",BLOCKED,10.50",
+                EMAIL + ",4000 0000 0000 0002," + EXPIRES + ",,",
+                EMAIL + ",4000000000000003," + EXPIRES + ",,"), ExportFormat.CSV, 0);
+
+        assertTrue(response.isCompleted());
+        assertEquals(3, response.getImported());
+        assertEquals(0, response.getFailed());
+        assertEquals(3, response.getNextOffset());
+        assertEquals(2, insertedChunks.size());
+        verify(userRepository, times(2)).findUserResponsesByEmailIn(anyCollection());
+        verify(cardEventPublisher, times(3)).cardCreated(eq(7L), any());
+
+        Card first = insertedChunks.get(0).get(0);
+        assertEquals("enc:4000000000000001", first.getEncryptedCardNumber());
+        assertEquals("0001", first.getLastFourDigits());
+        assertEquals(CardStatus.BLOCKED, first.getStatus());
+        assertEquals(new BigDecimal("10.50"), first.getBalance());
+        Card second = insertedChunks.get(0).get(1);
+        assertEquals("enc:4000000000000002", second.getEncryptedCardNumber());
+        assertEquals(CardStatus.ACTIVE, second.getStatus());
+        assertEquals(BigDecimal.ZERO, second.getBalance());
+    }
+
+    @Test
+    void importCards_ShouldReportInvalidRecordsAndKeepGoing() throws Exception {
+        CardImportResponse response = cardImportService.importCards(csv(
+                "nobody@example.com,4000000000000001," + EXPIRES + ",,",
+                EMAIL + ",4000," + EXPIRES + ",,",
+                EMAIL + ",4000000000000003,2001-01-01,,",
+                EMAIL + ",4000000000000004," + EXPIRES + ",LOST,",
+                EMAIL + ",4000000000000005," + EXPIRES + ",,-1",
+                EMAIL + ",4000000000000006," + EXPIRES + ",,"), ExportFormat.CSV, 0);
+
+        assertTrue(response.isCompleted());
+        assertEquals(1, response.getImported());
+        assertEquals(5, response.getFailed());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L),
+                response.getErrors().stream().map(error -> error.getRecord()).toList());
+        assertEquals("User not found with email: nobody@example.com", response.getErrors().get(0).getMessage());
+    }
+
+    @Test
+    void importCards_CardExpiredByDatabaseDate_ShouldBeRejected() throws Exception {
+        LocalDate databaseDate = LocalDate.now().plusDays(1);
+        when(cardRepository.currentDate()).thenReturn(databaseDate);
+
+        CardImportResponse response = cardImportService.importCards(csv(
+                EMAIL + ",4000000000000001," + LocalDate.now() + ",,",
+                EMAIL + ",4000000000000002," + databaseDate + ",,"), ExportFormat.CSV, 0);
+
+        assertEquals(1, response.getImported());
+        assertEquals("expirationDate is in the past", response.getErrors().get(0).getMessage());
+        assertEquals(1L, response.getErrors().get(0).getRecord());
+        verify(cardRepository).currentDate();
+    }
+
+    @Test
+    void importCards_WithOffset_ShouldSkipFinishedRecords() throws Exception {
+        String ndjson = IntStream.rangeClosed(1, 5)
+                .mapToObj(i -> "{\"ownerEmail\":\"" + EMAIL + "\",\"cardNumber\":\"400000000000000" + i
+                        + "\",\"expirationDate\":\"" + EXPIRES + "\"}")
+                .collect(Collectors.joining("\n"));
+
+        CardImportResponse response = cardImportService.importCards(stream(ndjson), ExportFormat.NDJSON, 3);
+
+        assertEquals(2, response.getImported());
+        assertEquals(5, response.getNextOffset());
+        assertEquals("0004", insertedChunks.get(0).get(0).getLastFourDigits());
+    }
+
+    @Test
+    void importCards_DatabaseFailure_ShouldReturnResumeOffset() throws Exception {
+        doThrow(new DataAccessResourceFailureException("connection lost"))
+                .doAnswer(invocation -> null)
+                .when(cardRepository).insertAll(anyList());
+
+        CardImportResponse response = cardImportService.importCards(csv(
+                EMAIL + ",4000000000000001," + EXPIRES + ",,",
+                EMAIL + ",4000000000000002," + EXPIRES + ",,",
+                EMAIL + ",4000000000000003," + EXPIRES + ",,"), ExportFormat.CSV, 0);
+
+        assertFalse(response.isCompleted());
+        assertEquals(0, response.getImported());
+        assertEquals(0, response.getNextOffset());
+    }
+
+    @Test
+    void importCards_NegativeOffset_ShouldBeRejected() {
+        assertThrows(InvalidImportOffsetException.class,
+                () -> cardImportService.importCards(csv(), ExportFormat.CSV, -1));
+    }
+
+    private static InputStream csv(String... rows) {
+        return stream("ownerEmail,cardNumber,expirationDate,status,balance\n" + String.join("\n", rows));
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
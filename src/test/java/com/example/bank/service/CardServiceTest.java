@@ -1,18 +1,35 @@
 package com.example.bank.service;
 
+import com.example.bank.config.ReadYourWrites;
+import com.example.bank.exception.CardNotActiveException;
+import com.example.bank.exception.InsufficientFundsException;
+import com.example.bank.exception.InvalidCursorException;
 import com.example.bank.exception.UnauthorizedAccessException;
+import com.example.bank.model.converter.CardNumberConverter;
+import com.example.bank.model.dto.request.BatchTransferRequest;
 import com.example.bank.model.dto.request.CardCreateRequest;
 import com.example.bank.model.dto.request.TransferRequest;
+import com.example.bank.model.dto.response.BalanceResponse;
+import com.example.bank.model.dto.response.BatchTransferResponse;
 import com.example.bank.model.dto.response.CardResponse;
+import com.example.bank.model.dto.response.CursorPageResponse;
+import com.example.bank.model.dto.response.TransferResultResponse;
 import com.example.bank.model.entity.Card;
 import com.example.bank.model.entity.CardStatus;
 import com.example.bank.model.entity.User;
+import com.example.bank.repository.CardBalanceBatchRepository;
 import com.example.bank.repository.CardRepository;
+import com.example.bank.repository.TransactionLedgerRepository;
 import com.example.bank.repository.UserRepository;
+import com.example.bank.security.service.UserDetailsImpl;
+import com.example.bank.security.service.UserDetailsServiceImpl;
 import jakarta.persistence.EntityNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -24,9 +41,11 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import javax.validation.Valid;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.TreeMap;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -37,7 +56,14 @@ class CardServiceTest {
 
     private CardRepository cardRepository;
     private UserRepository userRepository;
+    private CardBalanceBatchRepository cardBalanceBatchRepository;
+    private UserDetailsServiceImpl userDetailsService;
+    private CardNumberConverter cardNumberConverter;
+    private TransactionLedgerRepository transactionLedgerRepository;
+    private TransferIdempotencyService transferIdempotencyService;
     private ModelMapper modelMapper;
+    private MeterRegistry meterRegistry;
+    private CardEventPublisher cardEventPublisher;
     private CardService cardService;
 
     private User user;
@@ -48,8 +74,18 @@ class CardServiceTest {
     void setUp() {
         cardRepository = mock(CardRepository.class);
         userRepository = mock(UserRepository.class);
+        cardBalanceBatchRepository = mock(CardBalanceBatchRepository.class);
+        userDetailsService = mock(UserDetailsServiceImpl.class);
+        cardNumberConverter = mock(CardNumberConverter.class);
+        transactionLedgerRepository = mock(TransactionLedgerRepository.class);
+        transferIdempotencyService = mock(TransferIdempotencyService.class);
         modelMapper = mock(ModelMapper.class);
-        cardService = new CardService(cardRepository, modelMapper, userRepository);
+        meterRegistry = new SimpleMeterRegistry();
+        when(cardRepository.currentDate()).thenReturn(LocalDate.now());
+        cardEventPublisher = mock(CardEventPublisher.class);
+        cardService = new CardService(cardRepository, modelMapper, userRepository, cardBalanceBatchRepository,
+                userDetailsService, cardNumberConverter, transactionLedgerRepository, transferIdempotencyService,
+                meterRegistry, new ReadYourWrites(Duration.ofSeconds(10), 100), cardEventPublisher);
 
         user = new User();
         user.setId(1L);
@@ -57,13 +93,15 @@ class CardServiceTest {
 
         card = new Card();
         card.setId(2L);
-        card.setCardNumber("1234567812345678");
+        card.setEncryptedCardNumber("encrypted");
+        card.setLastFourDigits("5678");
         card.setOwner(user);
-        card.setExpirationDate(LocalDate.of(2025,12,31));
+        card.setExpirationDate(LocalDate.now().plusYears(3));
         card.setStatus(CardStatus.ACTIVE);
         card.setBalance(BigDecimal.valueOf(200));
 
         createRequest = new CardCreateRequest();
+        createRequest.setCardNumber("1234567812345678");
         createRequest.setOwnerEmail(user.getEmail());
         createRequest.setExpirationDate(card.getExpirationDate());
         createRequest.setBalance(card.getBalance());
@@ -71,31 +109,44 @@ class CardServiceTest {
 
     @Test
     void changeCardStatus_ShouldUpdateStatus() {
-        when(cardRepository.findById(2L)).thenReturn(Optional.of(card));
+        when(cardRepository.updateStatus(2L, CardStatus.BLOCKED)).thenReturn(1);
 
         cardService.changeCardStatus(2L, CardStatus.BLOCKED);
 
-        assertEquals(CardStatus.BLOCKED, card.getStatus());
-        verify(cardRepository).save(card);
+        verify(cardRepository, never()).save(any());
+        verify(cardEventPublisher).cardsChanged(List.of(2L));
     }
 
     @Test
     void changeCardStatus_WhenNotFound_ShouldThrow() {
-        when(cardRepository.findById(anyLong())).thenReturn(Optional.empty());
-
         assertThrows(EntityNotFoundException.class,
                 () -> cardService.changeCardStatus(99L, CardStatus.BLOCKED));
     }
 
+    @Test
+    void deleteCard_ShouldDeleteWithoutLoadingAndNotifyStreams() {
+        when(cardRepository.deleteCardById(2L)).thenReturn(1);
+
+        cardService.deleteCard(2L);
+
+        verify(cardRepository, never()).findById(anyLong());
+        verify(cardEventPublisher).cardsChanged(List.of(2L));
+    }
+
+    @Test
+    void deleteCard_WhenNotFound_ShouldThrow() {
+        assertThrows(EntityNotFoundException.class, () -> cardService.deleteCard(99L));
+        verifyNoInteractions(cardEventPublisher);
+    }
+
     @Test
     void getAllCards_ShouldReturnFilteredPage() {
         Pageable pageable = Pageable.unpaged();
 
-        CardResponse mapped = new CardResponse(card.getId(), card.getCardNumber(), user.getEmail(), card.getExpirationDate(), card.getStatus(), card.getBalance());
-        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
-        when(cardRepository.findAll(any(Specification.class), eq(pageable)))
-                .thenReturn(new PageImpl<>(List.of(card)));
-        when(modelMapper.map(eq(card), eq(CardResponse.class))).thenReturn(mapped);
+        CardResponse projected = new CardResponse(card.getId(), "**** **** **** 5678", user.getEmail(), card.getExpirationDate(), card.getStatus(), card.getBalance());
+        when(userDetailsService.findByEmail(user.getEmail())).thenReturn(Optional.of(UserDetailsImpl.build(user)));
+        when(cardRepository.findCardResponses(any(), eq(pageable)))
+                .thenReturn(new PageImpl<>(List.of(projected)));
 
         Page<CardResponse> result = cardService.getAllCards(user.getEmail(), CardStatus.ACTIVE, pageable);
 
@@ -104,14 +155,51 @@ class CardServiceTest {
 
         assertTrue(resp.getCardNumber().endsWith("5678"));
         assertEquals("**** **** **** 5678", resp.getCardNumber());
+        verify(cardRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+        verifyNoInteractions(cardNumberConverter, modelMapper);
+    }
+
+    @Test
+    void scrollUserCards_ShouldReturnCursorToNextPage() {
+        when(userDetailsService.findByEmail(user.getEmail())).thenReturn(Optional.of(UserDetailsImpl.build(user)));
+        CardResponse current = new CardResponse(card.getId(), null, user.getEmail(), null, CardStatus.ACTIVE, null);
+        CardResponse next = new CardResponse(5L, null, user.getEmail(), null, CardStatus.ACTIVE, null);
+        when(cardRepository.findCardResponsesAfter(any(), eq(0L), eq(2))).thenReturn(List.of(current, next));
+
+        CursorPageResponse<CardResponse> first = cardService.scrollUserCards(user.getEmail(), "", 1);
+
+        assertTrue(first.isHasNext());
+        assertEquals(1, first.getContent().size());
+
+        when(cardRepository.findCardResponsesAfter(any(), eq(card.getId()), eq(2))).thenReturn(List.of(next));
+        CursorPageResponse<CardResponse> second = cardService.scrollUserCards(user.getEmail(), first.getNextCursor(), 1);
+
+        assertFalse(second.isHasNext());
+        assertNull(second.getNextCursor());
+        verify(cardRepository, never()).findCardResponses(any(), any());
+    }
+
+    @Test
+    void scrollAllCards_CursorFromAnotherFilter_ShouldThrow() {
+        CardResponse projected = new CardResponse(card.getId(), null, user.getEmail(), null, CardStatus.ACTIVE, null);
+        when(cardRepository.findCardResponsesAfter(any(), eq(0L), eq(2))).thenReturn(List.of(projected, projected));
+
+        String cursor = cardService.scrollAllCards(null, CardStatus.ACTIVE, "", 1).getNextCursor();
+
+        assertThrows(InvalidCursorException.class,
+                () -> cardService.scrollAllCards(null, CardStatus.BLOCKED, cursor, 1));
+        assertThrows(InvalidCursorException.class,
+                () -> cardService.scrollAllCards(null, null, "not a cursor", 1));
     }
 
     @Test
     void createCard_ShouldMapAndSave() {
-        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(userDetailsService.findByEmail(user.getEmail())).thenReturn(Optional.of(UserDetailsImpl.build(user)));
+        when(userRepository.getReferenceById(user.getId())).thenReturn(user);
+        when(cardNumberConverter.encrypt("1234567812345678")).thenReturn("encrypted");
         when(modelMapper.map(createRequest, Card.class)).thenReturn(card);
         when(cardRepository.save(card)).thenReturn(card);
-        CardResponse mapped = new CardResponse(card.getId(), card.getCardNumber(), user.getEmail(), card.getExpirationDate(), card.getStatus(), card.getBalance());
+        CardResponse mapped = new CardResponse(card.getId(), card.getEncryptedCardNumber(), user.getEmail(), card.getExpirationDate(), card.getStatus(), card.getBalance());
         when(modelMapper.map(eq(card), eq(CardResponse.class))).thenReturn(mapped);
 
         CardResponse result = cardService.createCard(createRequest);
@@ -120,66 +208,291 @@ class CardServiceTest {
         assertEquals(card.getId(), result.getId());
         assertEquals(user.getEmail(), result.getOwnerEmail());
         assertEquals("**** **** **** 5678", result.getCardNumber());
+        assertEquals("encrypted", card.getEncryptedCardNumber());
+        assertEquals("5678", card.getLastFourDigits());
         verify(cardRepository).save(card);
     }
 
     @Test
     void transferBetweenUserCards_Success() {
-        // Setup user
-        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
-        // Source and target cards
-        Card source = new Card(); source.setId(1L); source.setOwner(user); source.setBalance(BigDecimal.valueOf(150));
-        Card target = new Card(); target.setId(2L); target.setOwner(user); target.setBalance(BigDecimal.valueOf(50));
-        when(cardRepository.findById(1L)).thenReturn(Optional.of(source));
-        when(cardRepository.findById(2L)).thenReturn(Optional.of(target));
+        when(userDetailsService.findByEmail(user.getEmail())).thenReturn(Optional.of(UserDetailsImpl.build(user)));
+        when(cardRepository.debit(1L, user.getId(), BigDecimal.valueOf(100))).thenReturn(1);
+        when(cardRepository.credit(2L, BigDecimal.valueOf(100))).thenReturn(1);
 
         TransferRequest req = new TransferRequest(1L, 2L, BigDecimal.valueOf(100));
-        cardService.transferBetweenUserCards(user.getEmail(), req);
+        cardService.transferBetweenUserCards(user.getEmail(), req, null);
+
+        InOrder inOrder = inOrder(cardRepository);
+        inOrder.verify(cardRepository).debit(1L, user.getId(), BigDecimal.valueOf(100));
+        inOrder.verify(cardRepository).credit(2L, BigDecimal.valueOf(100));
+        verify(cardRepository, never()).findById(anyLong());
+        verify(cardRepository, never()).saveAll(any());
+        verify(transactionLedgerRepository).record(user.getId(), req, null);
+        verify(cardEventPublisher).cardsChanged(List.of(1L, 2L));
+    }
 
-        assertEquals(BigDecimal.valueOf(50), source.getBalance());
-        assertEquals(BigDecimal.valueOf(150), target.getBalance());
-        verify(cardRepository).saveAll(List.of(source, target));
+    @Test
+    void transferBetweenUserCards_Replay_ShouldNotMoveMoneyAgain() {
+        when(userDetailsService.findByEmail(user.getEmail())).thenReturn(Optional.of(UserDetailsImpl.build(user)));
+        TransferRequest req = new TransferRequest(1L, 2L, BigDecimal.valueOf(100));
+        when(transferIdempotencyService.isReplay(user.getId(), "key-1", req)).thenReturn(true);
+
+        cardService.transferBetweenUserCards(user.getEmail(), req, "key-1");
+
+        verify(cardRepository, never()).debit(anyLong(), anyLong(), any());
+        verify(cardRepository, never()).credit(anyLong(), any());
+        verifyNoInteractions(transactionLedgerRepository);
+        assertEquals(1, meterRegistry.counter("bank.transfers", "outcome", "replayed").count());
+    }
+
+    @Test
+    void transferBetweenUserCards_NewKey_ShouldRecordKeyInLedger() {
+        when(userDetailsService.findByEmail(user.getEmail())).thenReturn(Optional.of(UserDetailsImpl.build(user)));
+        when(cardRepository.debit(1L, user.getId(), BigDecimal.valueOf(100))).thenReturn(1);
+        when(cardRepository.credit(2L, BigDecimal.valueOf(100))).thenReturn(1);
+        TransferRequest req = new TransferRequest(1L, 2L, BigDecimal.valueOf(100));
+
+        cardService.transferBetweenUserCards(user.getEmail(), req, "key-1");
+
+        verify(transferIdempotencyService).isReplay(user.getId(), "key-1", req);
+        verify(transactionLedgerRepository).record(user.getId(), req, "key-1");
+    }
+
+    @Test
+    void transferBetweenUserCards_ShouldLockLowerIdFirst() {
+        when(userDetailsService.findByEmail(user.getEmail())).thenReturn(Optional.of(UserDetailsImpl.build(user)));
+        when(cardRepository.debit(2L, user.getId(), BigDecimal.valueOf(100))).thenReturn(1);
+        when(cardRepository.credit(1L, BigDecimal.valueOf(100))).thenReturn(1);
+
+        TransferRequest req = new TransferRequest(2L, 1L, BigDecimal.valueOf(100));
+        cardService.transferBetweenUserCards(user.getEmail(), req, null);
+
+        InOrder inOrder = inOrder(cardRepository);
+        inOrder.verify(cardRepository).credit(1L, BigDecimal.valueOf(100));
+        inOrder.verify(cardRepository).debit(2L, user.getId(), BigDecimal.valueOf(100));
+    }
+
+    @Test
+    void transferBetweenUserCards_ForeignSourceCard_ShouldThrow() {
+        when(userDetailsService.findByEmail(user.getEmail())).thenReturn(Optional.of(UserDetailsImpl.build(user)));
+        User stranger = new User(); stranger.setId(5L);
+        Card other = new Card(); other.setId(3L); other.setOwner(stranger); other.setBalance(BigDecimal.valueOf(500));
+        when(cardRepository.findById(3L)).thenReturn(Optional.of(other));
+
+        TransferRequest req = new TransferRequest(3L, 4L, BigDecimal.valueOf(100));
+
+        assertThrows(UnauthorizedAccessException.class,
+                () -> cardService.transferBetweenUserCards(user.getEmail(), req, null));
+        verify(cardRepository, never()).credit(anyLong(), any());
     }
 
     @Test
     void transferBetweenUserCards_InsufficientFunds_ShouldThrow() {
-        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(userDetailsService.findByEmail(user.getEmail())).thenReturn(Optional.of(UserDetailsImpl.build(user)));
         card.setBalance(BigDecimal.valueOf(50));
         when(cardRepository.findById(2L)).thenReturn(Optional.of(card));
         TransferRequest req = new TransferRequest(2L, 3L, BigDecimal.valueOf(100));
 
         assertThrows(RuntimeException.class,
-                () -> cardService.transferBetweenUserCards(user.getEmail(), req));
+                () -> cardService.transferBetweenUserCards(user.getEmail(), req, null));
+        assertEquals(1, meterRegistry.counter("bank.transfers", "outcome", "insufficient_funds").count());
     }
 
     @Test
-    void requestBlockCard_Success() {
-        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+    void transferBetweenUserCards_ExpiredSourceCard_ShouldThrow() {
+        when(userDetailsService.findByEmail(user.getEmail())).thenReturn(Optional.of(UserDetailsImpl.build(user)));
+        card.setExpirationDate(LocalDate.now().minusDays(1));
         when(cardRepository.findById(2L)).thenReturn(Optional.of(card));
+        TransferRequest req = new TransferRequest(2L, 3L, BigDecimal.valueOf(100));
+
+        assertThrows(CardNotActiveException.class,
+                () -> cardService.transferBetweenUserCards(user.getEmail(), req, null));
+        assertEquals(1, meterRegistry.counter("bank.transfers", "outcome", "card_not_active").count());
+    }
+
+    @Test
+    void transferBatch_BlockedSourceCard_ShouldBeRejected() {
+        when(userDetailsService.findByEmail(user.getEmail())).thenReturn(Optional.of(UserDetailsImpl.build(user)));
+        Card source = activeCard(1L, BigDecimal.valueOf(150));
+        source.setStatus(CardStatus.BLOCKED);
+        when(cardRepository.findAllById(any())).thenReturn(List.of(source, card));
+
+        BatchTransferResponse response = cardService.transferBatch(user.getEmail(), new BatchTransferRequest(
+                List.of(new TransferRequest(1L, 2L, BigDecimal.TEN)), BatchTransferRequest.Mode.BEST_EFFORT));
+
+        assertEquals(1, response.getFailed());
+        assertEquals("Source card is not active", response.getResults().get(0).getMessage());
+        verify(cardBalanceBatchRepository, never()).applyBalanceDeltas(any());
+    }
+
+    @Test
+    void transferBatch_CardExpiredByDatabaseDate_ShouldBeRejected() {
+        when(userDetailsService.findByEmail(user.getEmail())).thenReturn(Optional.of(UserDetailsImpl.build(user)));
+        // Still valid on the JVM clock, but the database is already a day ahead
+        Card source = activeCard(1L, BigDecimal.valueOf(150));
+        source.setExpirationDate(LocalDate.now());
+        when(cardRepository.findAllById(any())).thenReturn(List.of(source, card));
+        when(cardRepository.currentDate()).thenReturn(LocalDate.now().plusDays(1));
+
+        BatchTransferResponse response = cardService.transferBatch(user.getEmail(), new BatchTransferRequest(
+                List.of(new TransferRequest(1L, 2L, BigDecimal.TEN)), BatchTransferRequest.Mode.BEST_EFFORT));
+
+        assertEquals("Source card is not active", response.getResults().get(0).getMessage());
+        verify(cardBalanceBatchRepository, never()).applyBalanceDeltas(any());
+    }
+
+    @Test
+    void transferBatch_AllOrNothing_ShouldNotWriteWhenAnyTransferIsRejected() {
+        when(userDetailsService.findByEmail(user.getEmail())).thenReturn(Optional.of(UserDetailsImpl.build(user)));
+        Card source = activeCard(1L, BigDecimal.valueOf(150));
+        when(cardRepository.findAllById(any())).thenReturn(List.of(source, card));
+
+        BatchTransferRequest req = new BatchTransferRequest(List.of(
+                new TransferRequest(1L, 2L, BigDecimal.valueOf(100)),
+                new TransferRequest(1L, 2L, BigDecimal.valueOf(100))
+        ), BatchTransferRequest.Mode.ALL_OR_NOTHING);
+
+        BatchTransferResponse result = cardService.transferBatch(user.getEmail(), req);
+
+        assertFalse(result.isApplied());
+        assertEquals(1, result.getFailed());
+        assertEquals(TransferResultResponse.Status.SKIPPED, result.getResults().get(0).getStatus());
+        assertEquals(TransferResultResponse.Status.REJECTED, result.getResults().get(1).getStatus());
+        verify(cardRepository).findAllById(any());
+        verifyNoInteractions(cardBalanceBatchRepository);
+        verifyNoInteractions(transactionLedgerRepository);
+    }
+
+    @Test
+    void transferBatch_BestEffort_ShouldWriteNetDeltasOfValidTransfers() {
+        when(userDetailsService.findByEmail(user.getEmail())).thenReturn(Optional.of(UserDetailsImpl.build(user)));
+        Card source = activeCard(1L, BigDecimal.valueOf(150));
+        when(cardRepository.findAllById(any())).thenReturn(List.of(source, card));
+        when(cardBalanceBatchRepository.applyBalanceDeltas(any())).thenReturn(new int[]{1, 1});
+
+        BatchTransferRequest req = new BatchTransferRequest(List.of(
+                new TransferRequest(1L, 2L, BigDecimal.valueOf(100)),
+                new TransferRequest(1L, 2L, BigDecimal.valueOf(100)),
+                new TransferRequest(2L, 1L, BigDecimal.valueOf(30)),
+                new TransferRequest(1L, 9L, BigDecimal.valueOf(10))
+        ), BatchTransferRequest.Mode.BEST_EFFORT);
+
+        BatchTransferResponse result = cardService.transferBatch(user.getEmail(), req);
+
+        assertTrue(result.isApplied());
+        assertEquals(2, result.getSucceeded());
+        assertEquals(2, result.getFailed());
+        assertEquals("Insufficient funds for transfer", result.getResults().get(1).getMessage());
+        assertEquals("Target card not found", result.getResults().get(3).getMessage());
+
+        TreeMap<Long, BigDecimal> expected = new TreeMap<>();
+        expected.put(1L, BigDecimal.valueOf(-70));
+        expected.put(2L, BigDecimal.valueOf(70));
+        verify(cardBalanceBatchRepository).applyBalanceDeltas(expected);
+        verify(transactionLedgerRepository).recordAll(user.getId(),
+                List.of(req.getTransfers().get(0), req.getTransfers().get(2)));
+    }
+
+    @Test
+    void transferBatch_ConcurrentOverdraft_ShouldThrow() {
+        when(userDetailsService.findByEmail(user.getEmail())).thenReturn(Optional.of(UserDetailsImpl.build(user)));
+        Card source = activeCard(1L, BigDecimal.valueOf(150));
+        when(cardRepository.findAllById(any())).thenReturn(List.of(source, card));
+        when(cardBalanceBatchRepository.applyBalanceDeltas(any())).thenReturn(new int[]{0, 1});
+
+        BatchTransferRequest req = new BatchTransferRequest(List.of(
+                new TransferRequest(1L, 2L, BigDecimal.valueOf(100))
+        ), BatchTransferRequest.Mode.BEST_EFFORT);
+
+        assertThrows(InsufficientFundsException.class, () -> cardService.transferBatch(user.getEmail(), req));
+    }
+
+    @Test
+    void requestBlockCard_Success() {
+        when(userDetailsService.findByEmail(user.getEmail())).thenReturn(Optional.of(UserDetailsImpl.build(user)));
+        when(cardRepository.blockActiveCard(2L, 1L)).thenReturn(1);
 
         cardService.requestBlockCard(user.getEmail(), 2L);
 
-        assertEquals(CardStatus.BLOCKED, card.getStatus());
-        verify(cardRepository).save(card);
+        verify(cardRepository, never()).findByIdAndOwnerId(anyLong(), anyLong());
+        verify(cardRepository, never()).save(any());
     }
 
     @Test
     void requestBlockCard_Unauthorized_ShouldThrow() {
-        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
-        Card other = new Card(); other.setId(3L); other.setOwner(new User()); other.setStatus(CardStatus.ACTIVE);
-        when(cardRepository.findById(3L)).thenReturn(Optional.of(other));
+        when(userDetailsService.findByEmail(user.getEmail())).thenReturn(Optional.of(UserDetailsImpl.build(user)));
+        when(cardRepository.findByIdAndOwnerId(3L, 1L)).thenReturn(Optional.empty());
+        when(cardRepository.existsById(3L)).thenReturn(true);
 
         assertThrows(UnauthorizedAccessException.class,
                 () -> cardService.requestBlockCard(user.getEmail(), 3L));
     }
 
+    @Test
+    void requestBlockCard_NotFound_ShouldThrow() {
+        when(userDetailsService.findByEmail(user.getEmail())).thenReturn(Optional.of(UserDetailsImpl.build(user)));
+        when(cardRepository.findByIdAndOwnerId(4L, 1L)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class,
+                () -> cardService.requestBlockCard(user.getEmail(), 4L));
+    }
+
     @Test
     void requestBlockCard_NotActive_ShouldThrow() {
-        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(userDetailsService.findByEmail(user.getEmail())).thenReturn(Optional.of(UserDetailsImpl.build(user)));
         card.setStatus(CardStatus.BLOCKED);
-        when(cardRepository.findById(2L)).thenReturn(Optional.of(card));
+        when(cardRepository.findByIdAndOwnerId(2L, 1L)).thenReturn(Optional.of(card));
 
         assertThrows(IllegalStateException.class,
                 () -> cardService.requestBlockCard(user.getEmail(), 2L));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getCardBalance_ShouldReadOnlyTheBalanceOfAnOwnedCard() {
+        when(userDetailsService.findByEmail(user.getEmail())).thenReturn(Optional.of(UserDetailsImpl.build(user)));
+        when(cardRepository.findBalanceByIdAndOwnerId(2L, 1L)).thenReturn(Optional.of(BigDecimal.valueOf(200)));
+
+        BalanceResponse balance = cardService.getCardBalance(user.getEmail(), 2L);
+
+        assertEquals(BigDecimal.valueOf(200), balance.getBalance());
+        verify(cardRepository, never()).findById(anyLong());
+        verify(cardRepository, never()).existsById(anyLong());
+    }
+
+    @Test
+    void getCardBalance_ForeignCard_ShouldThrow() {
+        when(userDetailsService.findByEmail(user.getEmail())).thenReturn(Optional.of(UserDetailsImpl.build(user)));
+        when(cardRepository.findBalanceByIdAndOwnerId(3L, 1L)).thenReturn(Optional.empty());
+        when(cardRepository.existsById(3L)).thenReturn(true);
+
+        assertThrows(UnauthorizedAccessException.class, () -> cardService.getCardBalance(user.getEmail(), 3L));
+    }
+
+    @Test
+    void getCardBalanceETag_ShouldUseVersionOnly() {
+        when(userDetailsService.findByEmail(user.getEmail())).thenReturn(Optional.of(UserDetailsImpl.build(user)));
+        when(cardRepository.findVersionByIdAndOwnerId(2L, 1L)).thenReturn(Optional.of(5L));
+
+        assertEquals("2-5", cardService.getCardBalanceETag(user.getEmail(), 2L));
+        verify(cardRepository, never()).findBalanceByIdAndOwnerId(anyLong(), anyLong());
+    }
+
+    @Test
+    void getCardBalanceETag_ForeignCard_ShouldThrow() {
+        when(userDetailsService.findByEmail(user.getEmail())).thenReturn(Optional.of(UserDetailsImpl.build(user)));
+        when(cardRepository.findVersionByIdAndOwnerId(3L, 1L)).thenReturn(Optional.empty());
+        when(cardRepository.existsById(3L)).thenReturn(true);
+
+        assertThrows(UnauthorizedAccessException.class, () -> cardService.getCardBalanceETag(user.getEmail(), 3L));
+    }
+
+    private Card activeCard(Long id, BigDecimal balance) {
+        Card active = new Card();
+        active.setId(id);
+        active.setOwner(user);
+        active.setStatus(CardStatus.ACTIVE);
+        active.setExpirationDate(LocalDate.now().plusYears(3));
+        active.setBalance(balance);
+        return active;
+    }
+}
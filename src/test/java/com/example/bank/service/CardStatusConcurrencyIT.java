@@ -0,0 +1,128 @@
+package com.example.bank.service;
+
+import com.example.bank.model.dto.request.TransferRequest;
+import com.example.bank.model.entity.CardStatus;
+import com.example.bank.support.BankIntegrationTest;
+import com.example.bank.support.TestData;
+import com.example.bank.support.TestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Transfers bump the card version without loading the entity, so status changes racing with them must not depend
+ * on the version they read.
+ */
+@BankIntegrationTest
+class CardStatusConcurrencyIT {
+
+    private static final int ROUNDS = 20;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+    }
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestData testData;
+
+    private String email;
+
+    private long sourceCardId;
+
+    private long targetCardId;
+
+    @BeforeEach
+    void seed() {
+        email = "status-race-" + System.nanoTime() + "@example.com";
+        long userId = testData.user(email);
+        sourceCardId = testData.card(userId);
+        targetCardId = testData.card(userId);
+    }
+
+    @Test
+    void changeCardStatus_ShouldSucceedWhileTransfersCreditTheCard() throws Exception {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < ROUNDS; i++) {
+            CardStatus status = i % 2 == 0 ? CardStatus.BLOCKED : CardStatus.ACTIVE;
+            tasks.add(() -> {
+                cardService.transferBetweenUserCards(email,
+                        new TransferRequest(sourceCardId, targetCardId, BigDecimal.ONE), null);
+                return null;
+            });
+            tasks.add(() -> {
+                cardService.changeCardStatus(targetCardId, status);
+                return null;
+            });
+        }
+        runConcurrently(tasks);
+
+        // Every transfer and every status change applied once
+        assertEquals(2L * ROUNDS, version(targetCardId));
+        assertEquals(0, new BigDecimal("120.00").compareTo(jdbcTemplate.queryForObject(
+                "SELECT balance FROM cards WHERE id = ?", BigDecimal.class, targetCardId)));
+    }
+
+    @Test
+    void requestBlockCard_ShouldSucceedAfterATransferChangedTheCard() throws Exception {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < ROUNDS; i++) {
+            tasks.add(() -> {
+                cardService.transferBetweenUserCards(email,
+                        new TransferRequest(targetCardId, sourceCardId, BigDecimal.ONE), null);
+                return null;
+            });
+        }
+        tasks.add(() -> {
+            cardService.requestBlockCard(email, sourceCardId);
+            return null;
+        });
+        runConcurrently(tasks);
+
+        assertEquals("BLOCKED", jdbcTemplate.queryForObject(
+                "SELECT status FROM cards WHERE id = ?", String.class, sourceCardId));
+        assertEquals(ROUNDS + 1L, version(sourceCardId));
+    }
+
+    private void runConcurrently(List<Callable<Void>> tasks) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Callable<Void> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                // Rethrows the failure of any task, e.g. an optimistic lock error
+                future.get();
+            }
+        }
+    }
+
+    private long version(long cardId) {
+        return jdbcTemplate.queryForObject("SELECT version FROM cards WHERE id = ?", Long.class, cardId);
+    }
+}
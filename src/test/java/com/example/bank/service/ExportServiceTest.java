@@ -0,0 +1,71 @@
+package com.example.bank.service;
+
+import com.example.bank.exception.TooManyRequestsException;
+import com.example.bank.model.converter.CardNumberConverter;
+import com.example.bank.repository.ExportRepository;
+import com.example.bank.security.service.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+class ExportServiceTest {
+
+    private SimpleMeterRegistry registry;
+    private ExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        exportService = new ExportService(mock(ExportRepository.class), mock(UserDetailsServiceImpl.class),
+                mock(CardNumberConverter.class), mock(PlatformTransactionManager.class), registry,
+                1, Duration.ofMinutes(30), Duration.ofSeconds(30));
+    }
+
+    @Test
+    void start_ShouldStreamBodyWithExportTimeout() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        WebAsyncTask<Void> task = exportService.start(out -> out.write("rows".getBytes(StandardCharsets.UTF_8)),
+                response);
+
+        assertEquals(Duration.ofMinutes(30).toMillis(), task.getTimeout());
+        task.getCallable().call();
+        assertEquals("rows", response.getContentAsString());
+    }
+
+    @Test
+    void start_ShouldRejectExportsBeyondTheLimitUntilOneFinishes() throws Exception {
+        WebAsyncTask<Void> running = exportService.start(out -> { }, new MockHttpServletResponse());
+        assertEquals(1, registry.get("bank.export.active").gauge().value());
+
+        TooManyRequestsException rejected = assertThrows(TooManyRequestsException.class,
+                () -> exportService.start(out -> { }, new MockHttpServletResponse()));
+        assertEquals(Duration.ofSeconds(30), rejected.getRetryAfter());
+        assertEquals(1, registry.get("bank.export.rejected").counter().count());
+
+        running.getCallable().call();
+        assertEquals(0, registry.get("bank.export.active").gauge().value());
+        exportService.start(out -> { }, new MockHttpServletResponse());
+    }
+
+    @Test
+    void start_ShouldFreeTheSlotWhenStreamingFails() {
+        WebAsyncTask<Void> failing = exportService.start(out -> {
+            throw new IOException("client went away");
+        }, new MockHttpServletResponse());
+
+        assertThrows(IOException.class, () -> failing.getCallable().call());
+        exportService.start(out -> { }, new MockHttpServletResponse());
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.bank.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExportWriterTest {
+
+    private static final List<String> COLUMNS = List.of("id", "email", "balance", "expirationDate");
+
+    @Test
+    void ndjson_ShouldWriteOneObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ExportWriter writer = new ExportWriter(ExportFormat.NDJSON, out, COLUMNS)) {
+            writer.write(1L, "a@example.com", new BigDecimal("10.50"), LocalDate.of(2030, 1, 31));
+            writer.write(2L, "b\"@example.com", null, LocalDate.of(2031, 2, 1));
+        }
+
+        assertEquals("""
+                {"id":1,"email":"a@example.com","balance":10.50,"expirationDate":"2030-01-31"}
+                {"id":2,"email":"b\\"@example.com","balance":null,"expirationDate":"2031-02-01"}
+                """, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void csv_ShouldWriteHeaderAndQuoteSpecialCharacters() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ExportWriter writer = new ExportWriter(ExportFormat.CSV, out, COLUMNS)) {
+            writer.write(1L, "plain@example.com", new BigDecimal("1E+3"), LocalDate.of(2030, 1, 31));
+            writer.write(2L, "say \"hi\", ok", null, LocalDate.of(2031, 2, 1));
+        }
+
+        assertEquals("id,email,balance,expirationDate\r\n"
+                + "1,plain@example.com,1000,2030-01-31\r\n"
+                + "2,\"say \"\"hi\"\", ok\",,2031-02-01\r\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void write_ShouldRejectWrongNumberOfValues() throws Exception {
+        ExportWriter writer = new ExportWriter(ExportFormat.CSV, new ByteArrayOutputStream(), COLUMNS);
+
+        assertThrows(IllegalArgumentException.class, () -> writer.write(1L));
+    }
+}
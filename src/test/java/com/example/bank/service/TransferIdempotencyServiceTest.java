@@ -0,0 +1,76 @@
+package com.example.bank.service;
+
+import com.example.bank.exception.IdempotencyKeyReusedException;
+import com.example.bank.exception.InvalidIdempotencyKeyException;
+import com.example.bank.model.dto.request.TransferRequest;
+import com.example.bank.repository.TransactionLedgerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TransferIdempotencyServiceTest {
+
+    private TransactionLedgerRepository transactionLedgerRepository;
+    private TransferIdempotencyService transferIdempotencyService;
+    private TransferRequest request;
+
+    @BeforeEach
+    void setUp() {
+        transactionLedgerRepository = mock(TransactionLedgerRepository.class);
+        transferIdempotencyService = new TransferIdempotencyService(transactionLedgerRepository, 100, Duration.ofMinutes(10));
+        request = new TransferRequest(1L, 2L, new BigDecimal("100.00"));
+    }
+
+    @Test
+    void newKey_ShouldBeClaimedAndRetryAnsweredFromCache() {
+        when(transactionLedgerRepository.claimIdempotencyKey(7L, "key-1", request)).thenReturn(true);
+
+        assertFalse(transferIdempotencyService.isReplay(7L, "key-1", request));
+        assertTrue(transferIdempotencyService.isReplay(7L, "key-1", new TransferRequest(1L, 2L, new BigDecimal("100"))));
+
+        verify(transactionLedgerRepository, times(1)).claimIdempotencyKey(anyLong(), any(), any());
+        verify(transactionLedgerRepository, never()).findIdempotentTransfer(anyLong(), any());
+    }
+
+    @Test
+    void keyClaimedElsewhere_ShouldFallBackToDatabase() {
+        when(transactionLedgerRepository.claimIdempotencyKey(7L, "key-1", request)).thenReturn(false);
+        when(transactionLedgerRepository.findIdempotentTransfer(7L, "key-1")).thenReturn(Optional.of(request));
+
+        assertTrue(transferIdempotencyService.isReplay(7L, "key-1", request));
+        assertTrue(transferIdempotencyService.isReplay(7L, "key-1", request));
+
+        verify(transactionLedgerRepository, times(1)).findIdempotentTransfer(7L, "key-1");
+    }
+
+    @Test
+    void reusedKeyWithDifferentTransfer_ShouldThrow() {
+        when(transactionLedgerRepository.claimIdempotencyKey(7L, "key-1", request)).thenReturn(true);
+        transferIdempotencyService.isReplay(7L, "key-1", request);
+
+        assertThrows(IdempotencyKeyReusedException.class, () -> transferIdempotencyService.isReplay(7L, "key-1",
+                new TransferRequest(1L, 2L, new BigDecimal("200.00"))));
+    }
+
+    @Test
+    void keysAreScopedPerUser() {
+        when(transactionLedgerRepository.claimIdempotencyKey(anyLong(), eq("key-1"), eq(request))).thenReturn(true);
+
+        assertFalse(transferIdempotencyService.isReplay(7L, "key-1", request));
+        assertFalse(transferIdempotencyService.isReplay(8L, "key-1", request));
+    }
+
+    @Test
+    void oversizedKey_ShouldBeRejected() {
+        String key = "k".repeat(TransferIdempotencyService.MAX_KEY_LENGTH + 1);
+
+        assertThrows(InvalidIdempotencyKeyException.class, () -> transferIdempotencyService.isReplay(7L, key, request));
+        verifyNoInteractions(transactionLedgerRepository);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.bank.support;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Full application context with a test JWT secret and the expiry sweeper off, plus {@link TestData} for seeding.
+ * Tests still point the datasource at {@link TestDatabase} from their own {@code @DynamicPropertySource}, and add
+ * properties of their own with {@code @TestPropertySource}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@SpringBootTest(properties = {
+        "jwt.secret=MDEyMzQ1Njc4OWFiY2RlZjAxMjM0NTY3ODlhYmNkZWY=",
+        "jwt.jwtExpirationMs=3600000",
+        "card-expiry.enabled=false"
+})
+@Import(TestData.class)
+public @interface BankIntegrationTest {
+}
@@ -0,0 +1,117 @@
+package com.example.bank.support;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Captures the SQL and bind values the application sends through the proxied DataSource and replays them
+ * under {@code EXPLAIN}, so tests can check plans of the queries Hibernate really generates.
+ */
+public final class QueryPlans {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final ThreadLocal<List<CapturedQuery>> CAPTURED = new ThreadLocal<>();
+
+    private static final Set<ProxyDataSource> INSTRUMENTED = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private QueryPlans() {
+    }
+
+    /**
+     * @return statements run by {@code action} on the calling thread, in execution order
+     */
+    public static List<CapturedQuery> capture(DataSource dataSource, Runnable action) {
+        instrument(dataSource);
+        List<CapturedQuery> queries = new ArrayList<>();
+        CAPTURED.set(queries);
+        try {
+            action.run();
+        } finally {
+            CAPTURED.remove();
+        }
+        return queries;
+    }
+
+    /**
+     * @return the JSON plan of the query with its original bind values; the EXPLAIN itself is not captured
+     */
+    public static JsonNode explain(DataSource dataSource, CapturedQuery query) throws Exception {
+        DataSource target = dataSource instanceof ProxyDataSource proxy ? proxy.getDataSource() : dataSource;
+        try (Connection connection = target.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN (FORMAT JSON) " + query.sql())) {
+            for (ParameterSetOperation parameter : query.parameters()) {
+                parameter.getMethod().invoke(statement, parameter.getArgs());
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return OBJECT_MAPPER.readTree(resultSet.getString(1)).get(0).get("Plan");
+            }
+        }
+    }
+
+    /**
+     * @return relations read by a sequential scan anywhere in the plan
+     */
+    public static List<String> seqScans(JsonNode plan) {
+        List<String> relations = new ArrayList<>();
+        collectSeqScans(plan, relations);
+        return relations;
+    }
+
+    private static void collectSeqScans(JsonNode node, List<String> relations) {
+        if ("Seq Scan".equals(node.path("Node Type").asText())) {
+            relations.add(node.path("Relation Name").asText());
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectSeqScans(child, relations);
+        }
+    }
+
+    private static synchronized void instrument(DataSource dataSource) {
+        if (!(dataSource instanceof ProxyDataSource proxy)) {
+            throw new IllegalStateException("DataSource is not proxied, is sql-accounting enabled?");
+        }
+        if (INSTRUMENTED.add(proxy)) {
+            proxy.addListener(new CapturingListener());
+        }
+    }
+
+    public record CapturedQuery(String sql, List<ParameterSetOperation> parameters) {
+    }
+
+    private static final class CapturingListener implements QueryExecutionListener {
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            List<CapturedQuery> queries = CAPTURED.get();
+            if (queries == null) {
+                return;
+            }
+            for (QueryInfo queryInfo : queryInfoList) {
+                List<List<ParameterSetOperation>> parametersList = queryInfo.getParametersList();
+                queries.add(new CapturedQuery(queryInfo.getQuery(),
+                        parametersList.isEmpty() ? List.of() : List.copyOf(parametersList.get(0))));
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.bank.support;
+
+import com.example.bank.config.SqlStatistics;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * MockMvc matchers over the {@code Server-Timing} header written by the SQL accounting filter, e.g.
+ * {@code andExpect(SqlAssertions.statements(1))} to pin a query count and catch N+1 regressions.
+ */
+public final class SqlAssertions {
+
+    private static final Pattern DB_TIMING =
+            Pattern.compile("db;dur=([0-9.]+);desc=\"statements=(\\d+) rows=(\\d+)\"");
+
+    private SqlAssertions() {
+    }
+
+    public static ResultMatcher statements(int expected) {
+        return result -> assertEquals(expected, timing(result).statements(),
+                () -> "SQL statements of " + describe(result));
+    }
+
+    public static ResultMatcher statementsAtMost(int max) {
+        return result -> assertTrue(timing(result).statements() <= max,
+                () -> "Expected at most " + max + " SQL statements for " + describe(result)
+                        + " but was " + timing(result).statements());
+    }
+
+    public static ResultMatcher rows(long expected) {
+        return result -> assertEquals(expected, timing(result).rows(), () -> "SQL rows of " + describe(result));
+    }
+
+    public static DbTiming timing(MvcResult result) {
+        String header = result.getResponse().getHeader(SqlStatistics.SERVER_TIMING_HEADER);
+        assertNotNull(header, "No " + SqlStatistics.SERVER_TIMING_HEADER + " header, is sql-accounting enabled?");
+        Matcher matcher = DB_TIMING.matcher(header);
+        assertTrue(matcher.find(), () -> "No db entry in " + SqlStatistics.SERVER_TIMING_HEADER + ": " + header);
+        return new DbTiming(Double.parseDouble(matcher.group(1)), Integer.parseInt(matcher.group(2)),
+                Long.parseLong(matcher.group(3)));
+    }
+
+    private static String describe(MvcResult result) {
+        return result.getRequest().getMethod() + " " + result.getRequest().getRequestURI();
+    }
+
+    public record DbTiming(double jdbcMillis, int statements, long rows) {
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.bank.support;
+
+import com.example.bank.model.entity.CardStatus;
+import com.example.bank.security.service.UserDetailsImpl;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+
+/**
+ * Seeds users and cards with plain SQL, bypassing the services under test. Card numbers are not encrypted, so
+ * tests that read them back seed their own rows.
+ */
+@TestComponent
+public class TestData {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TestData(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return id of a new user with {@code ROLE_USER} and an unusable password
+     */
+    public long user(String email) {
+        Long userId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (email, password) VALUES (?, 'not-used') RETURNING id", Long.class, email);
+        jdbcTemplate.update("INSERT INTO user_roles (user_id, role) VALUES (?, 'ROLE_USER')", userId);
+        return userId;
+    }
+
+    /**
+     * @return id of a new active card with a balance of 100 that expires in three years
+     */
+    public long card(long userId) {
+        return card(userId, CardStatus.ACTIVE, LocalDate.now().plusYears(3));
+    }
+
+    /**
+     * @return id of a new card with a balance of 100
+     */
+    public long card(long userId, CardStatus status, LocalDate expirationDate) {
+        return jdbcTemplate.queryForObject("""
+                        INSERT INTO cards (card_number, last_four_digits, user_id, expiration_date, status, balance)
+                        VALUES ('not-encrypted', '0000', ?, ?, ?, 100) RETURNING id""",
+                Long.class, userId, Date.valueOf(expirationDate), status.name());
+    }
+
+    public static UserDetailsImpl principal(long userId, String email) {
+        return new UserDetailsImpl(userId, email, "not-used", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+
+    /**
+     * Authenticates the request as {@code user}; unlike {@code user("name")}, the principal is the
+     * {@link UserDetailsImpl} that user controllers take as {@code @AuthenticationPrincipal}.
+     */
+    public static RequestBuilder withPrincipal(UserDetailsImpl user, MockHttpServletRequestBuilder request) {
+        return request.with(authentication(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities())));
+    }
+}
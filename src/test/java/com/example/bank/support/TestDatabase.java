@@ -0,0 +1,102 @@
+package com.example.bank.support;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import liquibase.exception.LiquibaseException;
+import liquibase.integration.spring.SpringLiquibase;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * Points the application at {@code -Dtest.datasource.url} when given, otherwise at an embedded Postgres
+ * started once per JVM.
+ */
+public final class TestDatabase {
+
+    private static EmbeddedPostgres embeddedPostgres;
+
+    private static EmbeddedPostgres replica;
+
+    private TestDatabase() {
+    }
+
+    public static void register(DynamicPropertyRegistry registry) {
+        // Spring caches one context per distinct test configuration, and each would otherwise keep a full pool open
+        registry.add("spring.datasource.hikari.minimum-idle", () -> "2");
+        String url = System.getProperty("test.datasource.url");
+        if (url != null) {
+            registry.add("spring.datasource.url", () -> url);
+            registry.add("spring.datasource.username", () -> System.getProperty("test.datasource.username", "postgres"));
+            registry.add("spring.datasource.password", () -> System.getProperty("test.datasource.password", ""));
+            return;
+        }
+        EmbeddedPostgres postgres = embedded();
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    /**
+     * Starts a second embedded Postgres with the schema of the changelog and points {@code replica.urls} at it.
+     * Nothing replicates into it, so tests seed it directly to tell replica reads from primary reads.
+     */
+    public static void registerReplica(DynamicPropertyRegistry registry) {
+        DataSource dataSource = replicaDataSource();
+        registry.add("replica.urls", () -> replica.getJdbcUrl("postgres", "postgres"));
+        registry.add("replica.username", () -> "postgres");
+        registry.add("replica.password", () -> "postgres");
+        registry.add("replica.pool-size", () -> "5");
+        migrate(dataSource);
+    }
+
+    public static synchronized DataSource replicaDataSource() {
+        if (replica == null) {
+            replica = start();
+        }
+        return replica.getPostgresDatabase();
+    }
+
+    private static void migrate(DataSource dataSource) {
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog("classpath:/db/changelog/db.changelog-master.xml");
+        liquibase.setChangeLogParameters(Map.of(
+                "encryption.password", "strong-secret-key",
+                "encryption.salt", "deadbeefcafebabe"));
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        try {
+            liquibase.afterPropertiesSet();
+        } catch (LiquibaseException e) {
+            throw new IllegalStateException("Cannot migrate the replica", e);
+        }
+    }
+
+    private static synchronized EmbeddedPostgres embedded() {
+        if (embeddedPostgres == null) {
+            embeddedPostgres = start();
+        }
+        return embeddedPostgres;
+    }
+
+    private static EmbeddedPostgres start() {
+        EmbeddedPostgres postgres;
+        try {
+            postgres = EmbeddedPostgres.builder()
+                    .setServerConfig("max_connections", "200")
+                    .start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                postgres.close();
+            } catch (IOException ignored) {
+            }
+        }));
+        return postgres;
+    }
+}